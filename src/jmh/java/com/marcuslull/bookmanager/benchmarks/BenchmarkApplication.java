@@ -0,0 +1,90 @@
+package com.marcuslull.bookmanager.benchmarks;
+
+import com.marcuslull.bookmanager.BookManagerApplication;
+import com.marcuslull.bookmanager.dtos.BookDto;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared helpers for the JMH benchmarks.
+ *
+ * <p>Benchmarks run against a real application context backed by a private in-memory H2 database, so the measured
+ * paths include Spring proxies, the Caffeine cache and Hibernate exactly as they run in production. Service benchmarks
+ * use a non-web context, load tests start the embedded web server on a random port.</p>
+ */
+final class BenchmarkApplication {
+
+    private static final AtomicLong TITLE_SEQUENCE = new AtomicLong();
+    // Every benchmark starts from an empty cache and leaves no file of recently read books behind.
+    private static final String NO_WARM_UP = "bookmanager.cache.warm-up.mode=none";
+
+    private BenchmarkApplication() {}
+
+    /**
+     * Starts a quiet application context without the embedded web server.
+     *
+     * @param properties additional {@code key=value} properties applied on top of {@code application.properties}
+     * @return the running application context, to be closed by the caller in its tear-down
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        List<String> arguments = new ArrayList<>(List.of(NO_WARM_UP));
+        arguments.addAll(List.of(properties));
+        return quietApplication(WebApplicationType.NONE)
+                .run(asArguments(arguments.toArray(String[]::new)));
+    }
+
+    /**
+     * Starts a quiet application context with the embedded web server on a random port. Rate limits are raised
+     * out of reach and successful requests are not logged, so neither is part of the measurement.
+     *
+     * @param properties additional {@code key=value} properties applied on top of {@code application.properties}
+     * @return the running application context, to be closed by the caller in its tear-down
+     */
+    static ConfigurableApplicationContext startWeb(String... properties) {
+        String unlimited = String.valueOf(Integer.MAX_VALUE);
+        List<String> arguments = new ArrayList<>(List.of(NO_WARM_UP, "server.port=0", "bookmanager.access-log.sample-rate=0",
+                "bookmanager.rate-limit.list-books.capacity=" + unlimited,
+                "bookmanager.rate-limit.get-book.capacity=" + unlimited,
+                "bookmanager.rate-limit.post-books.capacity=" + unlimited,
+                "bookmanager.rate-limit.delete-books.capacity=" + unlimited));
+        arguments.addAll(List.of(properties));
+        return quietApplication(WebApplicationType.SERVLET)
+                .run(asArguments(arguments.toArray(String[]::new)));
+    }
+
+    private static String[] asArguments(String... properties) {
+        // Command line arguments take precedence over application.properties, unlike the builder's default properties.
+        return Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    private static SpringApplicationBuilder quietApplication(WebApplicationType webApplicationType) {
+        return new SpringApplicationBuilder(BookManagerApplication.class)
+                .web(webApplicationType)
+                .logStartupInfo(false)
+                .properties("logging.level.root=WARN", "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID());
+    }
+
+    /**
+     * Creates {@code count} valid books whose titles are unique across the whole JVM run, so that they
+     * always pass deduplication.
+     *
+     * @param count the number of books to create
+     * @return a list of unique {@link BookDto} objects
+     */
+    static List<BookDto> uniqueBooks(int count) {
+        List<BookDto> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long sequence = TITLE_SEQUENCE.incrementAndGet();
+            books.add(new BookDto("Benchmark title " + sequence, "Benchmark author", (int) (sequence % 9000) + 1, 1, false));
+        }
+        return books;
+    }
+}
@@ -0,0 +1,151 @@
+package com.marcuslull.bookmanager.benchmarks;
+
+import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.PageDto;
+import com.marcuslull.bookmanager.exceptions.DuplicateEntityException;
+import com.marcuslull.bookmanager.services.BookCacheService;
+import com.marcuslull.bookmanager.services.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the read and write paths of {@link BookService}.
+ *
+ * <ul>
+ *     <li>{@code findByIdCacheHit} / {@code findByIdCacheMiss} &ndash; lookups served by the "books" cache or the database.</li>
+ *     <li>{@code findAllById} / {@code findAllByIdUncached} &ndash; a batch lookup of 100 books served by the "books" cache
+ *     or a single database query.</li>
+ *     <li>{@code findAllPaged} / {@code findAllPagedUncached} &ndash; sorted page reads at increasing offsets, served by
+ *     the "bookPages" cache or the database.</li>
+ *     <li>{@code saveAll} &ndash; persisting unique batches of 1, 100 and 10,000 books, including deduplication.</li>
+ *     <li>{@code saveAllDuplicates} &ndash; a batch rejected entirely by deduplication.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    private static final int CATALOGUE_SIZE = 20_000;
+
+    @State(Scope.Benchmark)
+    public static class Catalogue {
+        ConfigurableApplicationContext context;
+        BookService bookService;
+        BookCacheService bookCacheService;
+        Long cachedId;
+        Long uncachedId;
+        List<Long> batchIds;
+        List<BookDto> existingBooks;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkApplication.start();
+            bookService = context.getBean(BookService.class);
+            bookCacheService = context.getBean(BookCacheService.class);
+
+            existingBooks = BenchmarkApplication.uniqueBooks(CATALOGUE_SIZE);
+            for (int from = 0; from < CATALOGUE_SIZE; from += 1_000) {
+                bookService.saveAll(existingBooks.subList(from, from + 1_000));
+            }
+            cachedId = bookService.findAllPaged(PageRequest.of(0, 1)).content().stream()
+                    .map(BookResponseDto.class::cast).findFirst().orElseThrow().id();
+            uncachedId = cachedId + 1;
+            bookService.findById(cachedId);
+            batchIds = bookService.findAllPaged(PageRequest.of(0, 100)).content().stream()
+                    .map(BookResponseDto.class::cast).map(BookResponseDto::id).toList();
+            existingBooks = existingBooks.subList(0, 100);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Batch {
+        @Param({"1", "100", "10000"})
+        int batchSize;
+
+        List<BookDto> books;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            books = BenchmarkApplication.uniqueBooks(batchSize);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Paging {
+        @Param({"0", "100", "990"})
+        int pageNumber;
+
+        Pageable pageable;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            pageable = PageRequest.of(pageNumber, 20, Sort.by("title"));
+        }
+    }
+
+    @Benchmark
+    public BookResponseDto findByIdCacheHit(Catalogue catalogue) {
+        return catalogue.bookService.findById(catalogue.cachedId);
+    }
+
+    @Benchmark
+    public BookResponseDto findByIdCacheMiss(Catalogue catalogue) {
+        catalogue.bookCacheService.cacheEvictBook(catalogue.uncachedId);
+        return catalogue.bookService.findById(catalogue.uncachedId);
+    }
+
+    @Benchmark
+    public List<BookResponseDto> findAllById(Catalogue catalogue) {
+        return catalogue.bookService.findAllById(catalogue.batchIds);
+    }
+
+    @Benchmark
+    public List<BookResponseDto> findAllByIdUncached(Catalogue catalogue) {
+        catalogue.batchIds.forEach(catalogue.bookCacheService::cacheEvictBook);
+        return catalogue.bookService.findAllById(catalogue.batchIds);
+    }
+
+    @Benchmark
+    public PageDto findAllPaged(Catalogue catalogue, Paging paging) {
+        return catalogue.bookService.findAllPaged(paging.pageable);
+    }
+
+    @Benchmark
+    public PageDto findAllPagedUncached(Catalogue catalogue, Paging paging) {
+        catalogue.bookCacheService.cacheEvictPages();
+        return catalogue.bookService.findAllPaged(paging.pageable);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 20, batchSize = 1)
+    public List<BookResponseDto> saveAll(Catalogue catalogue, Batch batch) {
+        return catalogue.bookService.saveAll(batch.books);
+    }
+
+    @Benchmark
+    public void saveAllDuplicates(Catalogue catalogue, Blackhole blackhole) {
+        try {
+            blackhole.consume(catalogue.bookService.saveAll(catalogue.existingBooks));
+        } catch (DuplicateEntityException e) {
+            blackhole.consume(e);
+        }
+    }
+}
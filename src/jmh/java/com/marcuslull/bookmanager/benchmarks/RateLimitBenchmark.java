@@ -0,0 +1,69 @@
+package com.marcuslull.bookmanager.benchmarks;
+
+import com.marcuslull.bookmanager.configurations.RateLimitProperties;
+import com.marcuslull.bookmanager.services.RateLimitPolicy;
+import com.marcuslull.bookmanager.services.RateLimitResult;
+import com.marcuslull.bookmanager.services.RateLimitServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link RateLimitServiceImpl#consume} under contention.
+ *
+ * <p>Eight threads share one limiter and cycle through {@code distinctClients} client addresses, so a value of 1
+ * measures contention on a single key and larger values measure spread across many keys. The limiter is bounded to
+ * {@value #MAX_CLIENTS} clients, so the largest setting also measures eviction.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class RateLimitBenchmark {
+
+    private static final long MAX_CLIENTS = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Limiter {
+        @Param({"1", "10000", "1000000"})
+        int distinctClients;
+
+        RateLimitServiceImpl rateLimitService;
+        String[] clientAddresses;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            RateLimitProperties.Budget budget = new RateLimitProperties.Budget(120, Duration.ofMinutes(1));
+            rateLimitService = new RateLimitServiceImpl(
+                    new RateLimitProperties(MAX_CLIENTS, budget, budget, budget, budget), new SimpleMeterRegistry());
+            clientAddresses = new String[distinctClients];
+            for (int i = 0; i < distinctClients; i++) {
+                clientAddresses[i] = "10." + ((i >> 16) & 0xFF) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        MockHttpServletRequest request;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            request = new MockHttpServletRequest("GET", "/api/v1/books");
+            next = (int) Thread.currentThread().threadId();
+        }
+    }
+
+    @Benchmark
+    public RateLimitResult consume(Limiter limiter, Client client) {
+        String[] addresses = limiter.clientAddresses;
+        client.request.setRemoteAddr(addresses[Math.floorMod(client.next++, addresses.length)]);
+        return limiter.rateLimitService.consume(client.request, RateLimitPolicy.GET_BOOK);
+    }
+}
@@ -0,0 +1,109 @@
+package com.marcuslull.bookmanager.benchmarks;
+
+import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.services.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test comparing request handling on the Tomcat platform-thread pool with virtual threads.
+ *
+ * <p>{@value #CLIENTS} client threads send requests over HTTP to the embedded server, started with
+ * {@code spring.threads.virtual.enabled} set to {@code virtualThreads}. The platform pool is limited to
+ * {@code server.tomcat.threads.max} threads, which is ignored with virtual threads; the connection pool bounds
+ * concurrent queries in both modes.</p>
+ *
+ * <ul>
+ *     <li>{@code cursorPage} &ndash; a keyset page of 100 books, which is not cached and always queries the database.</li>
+ *     <li>{@code batchLookup} &ndash; a batch lookup of 100 random books, loaded into the "books" cache on the cache
+ *     executor on a miss.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(RequestThreadingBenchmark.CLIENTS)
+public class RequestThreadingBenchmark {
+
+    static final int CLIENTS = 400;
+    private static final int CATALOGUE_SIZE = 200_000;
+    private static final int BATCH_SIZE = 100;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({"false", "true"})
+        boolean virtualThreads;
+
+        @Param({"50", "200"})
+        int tomcatMaxThreads;
+
+        ConfigurableApplicationContext context;
+        HttpClient client;
+        URI baseUri;
+        long firstId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkApplication.startWeb(
+                    "spring.threads.virtual.enabled=" + virtualThreads,
+                    "server.tomcat.threads.max=" + tomcatMaxThreads,
+                    "spring.datasource.hikari.maximum-pool-size=" + tomcatMaxThreads,
+                    // Keep most of the catalogue out of the cache so batch lookups keep loading from the database.
+                    "bookmanager.cache.books.maximum-weight=1MB");
+            BookService bookService = context.getBean(BookService.class);
+            List<BookDto> books = BenchmarkApplication.uniqueBooks(CATALOGUE_SIZE);
+            for (int from = 0; from < CATALOGUE_SIZE; from += 1_000) {
+                bookService.saveAll(books.subList(from, from + 1_000));
+            }
+            firstId = bookService.findAllPaged(PageRequest.of(0, 1, Sort.by("id"))).content().stream()
+                    .map(BookResponseDto.class::cast).findFirst().orElseThrow().id();
+
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1/books");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            client.close();
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public int cursorPage(Server server) throws IOException, InterruptedException {
+        return send(server, URI.create(server.baseUri + "/cursor?size=" + BATCH_SIZE));
+    }
+
+    @Benchmark
+    public int batchLookup(Server server) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            ids.append(i == 0 ? "" : ",").append(server.firstId + random.nextInt(CATALOGUE_SIZE));
+        }
+        return send(server, URI.create(server.baseUri + "?ids=" + ids));
+    }
+
+    private static int send(Server server, URI uri) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = server.client.send(HttpRequest.newBuilder(uri).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + uri);
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,24 @@
+package com.marcuslull.bookmanager.configurations;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Access log configuration bound from the {@code bookmanager.access-log} properties.
+ *
+ * <p><b>Properties:</b></p>
+ * <ul>
+ *   <li>{@code bufferSize} &ndash; the number of entries buffered for the background writer</li>
+ *   <li>{@code sampleRate} &ndash; the fraction of successful requests that are logged</li>
+ * </ul>
+ *
+ * @param bufferSize the number of entries buffered for the background writer. Entries recorded while the buffer is
+ *                   full are dropped and counted rather than blocking the request
+ * @param sampleRate the fraction of successful requests that are logged, between 0 and 1. Error responses are
+ *                   always logged
+ */
+@ConfigurationProperties(prefix = "bookmanager.access-log")
+public record AccessLogProperties(
+        int bufferSize,
+        double sampleRate
+) {
+}
@@ -0,0 +1,96 @@
+package com.marcuslull.bookmanager.configurations;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Cache configuration bound from the {@code bookmanager.cache} properties.
+ *
+ * <p><b>Properties:</b></p>
+ * <ul>
+ *   <li>{@code books} &ndash; the policy of the "books" cache</li>
+ *   <li>{@code misses} &ndash; the policy of the "bookMisses" cache</li>
+ *   <li>{@code pages} &ndash; the policy of the "bookPages" cache</li>
+ *   <li>{@code count} &ndash; the policy of the "bookCount" cache</li>
+ *   <li>{@code warmUp} &ndash; how the "books" cache is filled before the application reports ready</li>
+ * </ul>
+ *
+ * @param books  the policy of the "books" cache
+ * @param misses the policy of the "bookMisses" cache
+ * @param pages  the policy of the "bookPages" cache
+ * @param count  the policy of the "bookCount" cache
+ * @param warmUp how the "books" cache is filled before the application reports ready
+ */
+@ConfigurationProperties(prefix = "bookmanager.cache")
+public record BookCacheProperties(
+        Books books,
+        Misses misses,
+        Pages pages,
+        Count count,
+        WarmUp warmUp
+) {
+
+    /**
+     * The policy of the "books" cache. Entries are weighed by their approximate retained size, so the bound holds
+     * regardless of how long titles and author names are.
+     *
+     * @param maximumWeight     the approximate maximum memory held by cached books
+     * @param expireAfterAccess how long a book stays cached after it was last read
+     * @param serialized        whether single book lookups are answered from the serialized JSON in the "bookJson"
+     *                          cache, which is bounded and expires like this cache
+     */
+    public record Books(DataSize maximumWeight, Duration expireAfterAccess, boolean serialized) {
+    }
+
+    /**
+     * The policy of the "bookMisses" cache, which remembers the IDs that were looked up without finding a book.
+     * Misses are kept apart from the "books" cache, so a flood of lookups for unknown IDs cannot evict real books.
+     *
+     * @param maximumSize      the maximum number of remembered misses
+     * @param expireAfterWrite how long a miss is remembered, which bounds how long a book created by other means than
+     *                         this application can go unseen
+     */
+    public record Misses(long maximumSize, Duration expireAfterWrite) {
+    }
+
+    /**
+     * The policy of the "bookPages" cache, which holds listing results keyed by page, size and sort. The whole cache is
+     * cleared whenever books are added or removed, the expiry only bounds how long unused pages are kept.
+     *
+     * @param maximumSize      the maximum number of cached pages
+     * @param expireAfterWrite how long a page stays cached after it was loaded
+     */
+    public record Pages(long maximumSize, Duration expireAfterWrite) {
+    }
+
+    /**
+     * The policy of the "bookCount" cache, which holds the approximate total number of books. It is deliberately not
+     * cleared on writes, the count is simply recomputed in the background once it is older than {@code refreshInterval}.
+     *
+     * @param refreshInterval how long a count is served before it is recomputed. The previous count is still served
+     *                        while it is recomputed
+     */
+    public record Count(Duration refreshInterval) {
+    }
+
+    /**
+     * How the "books" cache is filled on startup, before the application reports ready, so the first requests after a
+     * deploy do not all fall through to the database.
+     *
+     * @param mode       {@code none} to start empty, {@code recent} to reload the books that were most recently read
+     *                   before the last shutdown, or {@code all} to load the whole catalogue, which suits catalogues
+     *                   that fit within the cache. With {@code all}, books saved by bulk imports are cached as well
+     * @param recentSize the maximum number of recently read book IDs saved on shutdown
+     * @param recentFile the file the recently read book IDs are saved to and reloaded from. A relative path resolves
+     *                   against the working directory
+     */
+    public record WarmUp(Mode mode, int recentSize, Path recentFile) {
+
+        public enum Mode {
+            NONE, RECENT, ALL
+        }
+    }
+}
@@ -1,45 +1,133 @@
 package com.marcuslull.bookmanager.configurations;
 
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.repositories.BookRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
-import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
 
 @Configuration
 @EnableCaching
 public class CacheConfiguration implements CachingConfigurer {
     private final String CACHE_NAME = "books";
-    private final int EXPIRY_TIME_IN_MINUTES = 10;
+    private final String PAGES_CACHE_NAME = "bookPages";
+    private final String COUNT_CACHE_NAME = "bookCount";
+    private final String JSON_CACHE_NAME = "bookJson";
+    private final String MISSES_CACHE_NAME = "bookMisses";
+    // Rough fixed cost of a cached book: the projection, its boxed fields, two String headers and the cache entry itself.
+    private final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final BookCacheProperties bookCacheProperties;
+    private final Environment environment;
+    // Looked up lazily, as a caching configurer is created before the repositories it would otherwise pull in early.
+    private final ObjectProvider<BookRepository> bookRepository;
+
+    public CacheConfiguration(BookCacheProperties bookCacheProperties, Environment environment,
+                              ObjectProvider<BookRepository> bookRepository) {
+        this.bookCacheProperties = bookCacheProperties;
+        this.environment = environment;
+        this.bookRepository = bookRepository;
+    }
 
     /**
      * Configures and returns a CacheManager instance using the Caffeine caching library.
      * <p>
-     * The CacheManager is customized to use a cache named "books" with a specific expiration
-     * policy defined by the configuration settings.
+     * The CacheManager is customized to use a cache named "books" with a size bound and expiration
+     * policy defined by the {@code bookmanager.cache.books} properties, and a cache named "bookPages" for
+     * listing results defined by the {@code bookmanager.cache.pages} properties, and a cache named "bookCount" for
+     * the approximate total defined by the {@code bookmanager.cache.count} properties, and a cache named "bookMisses"
+     * for IDs without a book defined by the {@code bookmanager.cache.misses} properties. The "bookJson" cache is only
+     * filled when {@code bookmanager.cache.books.serialized} is enabled.
      * </p>
      * <p>
      * Key configurations:
      * <ul>
      *   <li>Cache Name: books</li>
-     *   <li>Cache Expiry Time: 10 minutes</li>
+     *   <li>Cache Maximum Weight: the approximate memory held by cached books, each weighed by its title and author length</li>
+     *   <li>Cache Expiry Time: time since a book was last read</li>
+     *   <li>Statistics: hit, miss and eviction counts are recorded and published as {@code cache.*} metrics</li>
+     *   <li>Pages Cache Name: bookPages, bounded by entry count and expiring after write</li>
+     *   <li>Count Cache Name: bookCount, a single entry recomputed in the background once it is older than the refresh
+     *   interval, while the previous count is still served</li>
+     *   <li>JSON Cache Name: bookJson, the serialized books, with the same bound and expiry as books</li>
+     *   <li>Misses Cache Name: bookMisses, bounded by entry count and expiring shortly after write</li>
+     *   <li>Executor: cache loads run on a new virtual thread each when {@code spring.threads.virtual.enabled} is set,
+     *   and on the common fork-join pool otherwise</li>
      * </ul>
      * </p>
      *
-     * @return a CaffeineCacheManager instance configured with a custom cache named "books" and a specific expiration policy.
+     * @return a CaffeineCacheManager instance configured with the custom caches "books", "bookPages", "bookCount", "bookJson" and "bookMisses", each with a bounded, expiring policy.
      */
     @Bean
     @Override
     public CacheManager cacheManager() {
+        BookCacheProperties.Books books = bookCacheProperties.books();
+        Executor executor = cacheExecutor();
         CaffeineCacheManager cacheManager = new CaffeineCacheManager("caffeine");
         cacheManager.registerCustomCache(CACHE_NAME, Caffeine.newBuilder()
-                        .expireAfterAccess(Duration.ofMinutes(EXPIRY_TIME_IN_MINUTES))
+                        .maximumWeight(books.maximumWeight().toBytes())
+                        .weigher((Object id, Object book) -> weighBook((BookResponseDto) book))
+                        .expireAfterAccess(books.expireAfterAccess())
+                        .recordStats()
+                        .executor(executor)
+                        .buildAsync());
+        BookCacheProperties.Misses misses = bookCacheProperties.misses();
+        cacheManager.registerCustomCache(MISSES_CACHE_NAME, Caffeine.newBuilder()
+                        .maximumSize(misses.maximumSize())
+                        .expireAfterWrite(misses.expireAfterWrite())
+                        .recordStats()
+                        .executor(executor)
+                        .buildAsync());
+        BookCacheProperties.Pages pages = bookCacheProperties.pages();
+        cacheManager.registerCustomCache(PAGES_CACHE_NAME, Caffeine.newBuilder()
+                        .maximumSize(pages.maximumSize())
+                        .expireAfterWrite(pages.expireAfterWrite())
+                        .recordStats()
+                        .executor(executor)
+                        .buildAsync());
+        cacheManager.registerCustomCache(JSON_CACHE_NAME, Caffeine.newBuilder()
+                        .maximumWeight(books.maximumWeight().toBytes())
+                        .weigher((Object id, Object json) -> weighJson((SerializedString) json))
+                        .expireAfterAccess(books.expireAfterAccess())
+                        .recordStats()
+                        .executor(executor)
                         .buildAsync());
+        cacheManager.registerCustomCache(COUNT_CACHE_NAME, Caffeine.newBuilder()
+                        .maximumSize(1)
+                        .refreshAfterWrite(bookCacheProperties.count().refreshInterval())
+                        .executor(executor)
+                        .buildAsync(key -> bookRepository.getObject().count()));
         return cacheManager;
     }
+
+    Executor cacheExecutor() {
+        // Loads through the synchronous view of an async cache run on this executor while the request thread waits
+        // for them. They block on the database, so the common pool would cap concurrent misses at its parallelism.
+        return Threading.VIRTUAL.isActive(environment) ?
+                Executors.newVirtualThreadPerTaskExecutor() :
+                ForkJoinPool.commonPool();
+    }
+
+    private int weighJson(SerializedString json) {
+        // The JSON is held both as a String and as its UTF-8 bytes.
+        return ENTRY_OVERHEAD_BYTES + 2 * json.charLength();
+    }
+
+    private int weighBook(BookResponseDto book) {
+        // Misses are remembered in the "bookMisses" cache, so every entry here is a book.
+        return ENTRY_OVERHEAD_BYTES + book.title().length() + book.author().length();
+    }
 }
@@ -0,0 +1,41 @@
+package com.marcuslull.bookmanager.configurations;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Rate limit configuration bound from the {@code bookmanager.rate-limit} properties.
+ *
+ * <p><b>Properties:</b></p>
+ * <ul>
+ *   <li>{@code maxClients} &ndash; the maximum number of clients tracked per policy</li>
+ *   <li>{@code listBooks}, {@code getBook}, {@code postBooks}, {@code deleteBooks} &ndash; the budget for each
+ *   {@link com.marcuslull.bookmanager.services.RateLimitPolicy}</li>
+ * </ul>
+ *
+ * @param maxClients  the maximum number of clients tracked per policy
+ * @param listBooks   the budget for listing books
+ * @param getBook     the budget for fetching single books
+ * @param postBooks   the budget for creating and importing books
+ * @param deleteBooks the budget for deleting books
+ */
+@ConfigurationProperties(prefix = "bookmanager.rate-limit")
+public record RateLimitProperties(
+        long maxClients,
+        Budget listBooks,
+        Budget getBook,
+        Budget postBooks,
+        Budget deleteBooks
+) {
+
+    /**
+     * A token bucket budget: a client may burst up to {@code capacity} requests, and the bucket refills
+     * completely over {@code window}.
+     *
+     * @param capacity the number of requests allowed per window
+     * @param window   the time over which an empty bucket refills completely
+     */
+    public record Budget(int capacity, Duration window) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.marcuslull.bookmanager.configurations;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Write-behind configuration bound from the {@code bookmanager.write-behind} properties.
+ *
+ * <p><b>Properties:</b></p>
+ * <ul>
+ *   <li>{@code enabled} &ndash; whether {@code POST /api/v1/books} queues books instead of saving them</li>
+ *   <li>{@code queueCapacity} &ndash; the number of books that can wait to be written</li>
+ *   <li>{@code batchSize} &ndash; the number of books written per transaction</li>
+ *   <li>{@code maxJobs} &ndash; the number of finished jobs whose status is kept</li>
+ *   <li>{@code jobRetention} &ndash; how long the status of a finished job is kept</li>
+ * </ul>
+ *
+ * @param enabled       whether {@code POST /api/v1/books} queues books and answers 202 Accepted with a job, instead of
+ *                      saving them before it answers
+ * @param queueCapacity the number of books that can wait to be written. A request whose books do not fit is rejected
+ *                      rather than blocking
+ * @param batchSize     the maximum number of queued books written per transaction, each sent as JDBC batches
+ * @param maxJobs       the maximum number of finished jobs whose status is kept, beyond which some are forgotten early.
+ *                      Jobs with books still queued are always kept
+ * @param jobRetention  how long the status of a job is kept after all of its books were written
+ */
+@ConfigurationProperties(prefix = "bookmanager.write-behind")
+public record WriteBehindProperties(
+        boolean enabled,
+        int queueCapacity,
+        int batchSize,
+        long maxJobs,
+        Duration jobRetention
+) {
+}
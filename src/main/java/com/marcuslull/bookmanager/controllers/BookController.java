@@ -1,29 +1,44 @@
 package com.marcuslull.bookmanager.controllers;
 
 import com.marcuslull.bookmanager.dtos.BookDto;
-import com.marcuslull.bookmanager.entities.BookEntity;
+import com.marcuslull.bookmanager.dtos.BookFilterDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.CursorPageDto;
+import com.marcuslull.bookmanager.dtos.DeleteSummaryDto;
+import com.marcuslull.bookmanager.dtos.ImportJobDto;
+import com.marcuslull.bookmanager.dtos.PageDto;
+import com.marcuslull.bookmanager.dtos.SliceDto;
+import com.marcuslull.bookmanager.exceptions.BatchSizeExceededException;
 import com.marcuslull.bookmanager.exceptions.DefensiveNullException;
-import com.marcuslull.bookmanager.exceptions.RequestLimitExceededException;
+import com.marcuslull.bookmanager.mappers.ETagMapper;
 import com.marcuslull.bookmanager.responses.ApiResponse;
 import com.marcuslull.bookmanager.responses.PostFieldErrorResponse;
 import com.marcuslull.bookmanager.responses.SuccessResponse;
+import com.marcuslull.bookmanager.services.BookImportService;
 import com.marcuslull.bookmanager.services.BookService;
-import com.marcuslull.bookmanager.services.RateLimitService;
+import com.marcuslull.bookmanager.services.BookWriteBehindService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 
 /**
  * Controller class for handling HTTP requests related to books.
  * It is a RESTful controller located at the "/api/v1" endpoint.
- * Handles GET, POST, and DELETE methods for books.
+ * Handles GET, POST, and DELETE methods for books, batch lookups and deletes, search, streaming bulk imports, and the
+ * status of write-behind jobs.
+ * Rate limiting is applied before requests reach this controller, by the {@code RateLimitFilter}.
+ * Single books and listing pages carry an ETag, and a GET whose If-None-Match matches it is answered with 304 Not Modified.
  *
  * @since 1.0
  */
@@ -31,26 +46,113 @@ import java.util.List;
 @RequestMapping("/api/v1")
 public class BookController {
 
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    // Matches the default maximum page size of Spring Data's Pageable resolution for '/books'.
+    private static final int MAX_PAGE_SIZE = 2000;
+    private static final int MAX_BATCH_IDS = MAX_PAGE_SIZE;
+
     private final BookService bookService;
-    private final RateLimitService rateLimitService;
+    private final BookImportService bookImportService;
+    private final BookWriteBehindService bookWriteBehindService;
 
-    public BookController(BookService bookService, RateLimitService rateLimitService) {
+    public BookController(BookService bookService, BookImportService bookImportService, BookWriteBehindService bookWriteBehindService) {
         this.bookService = bookService;
-        this.rateLimitService = rateLimitService;
+        this.bookImportService = bookImportService;
+        this.bookWriteBehindService = bookWriteBehindService;
     }
 
     /**
-     * Retrieves a pageable list of books.
+     * Retrieves a pageable list of books, optionally filtered, e.g.
+     * '/books?author=Someone&finished=false&sort=bookNumber'.
      *
      * @param request  the HttpServletRequest object associated with the request
      * @param pageable the Pageable object used for pagination and sorting
-     * @return A ResponseEntity object containing the HTTP status code and the body, which is a SuccessResponse object
+     * @param filter   the author, finished, minPages and maxPages filters, each applied only when given
+     * @param count    whether to count the books. When false, no count query is run and the body contains a
+     *                 SliceDto with only hasNext and an approximate total instead of a PageDto. Filtered listings
+     *                 are always counted, as the count runs over the same index range as the page
+     * @return A ResponseEntity object containing the HTTP status code and the body, which is a SuccessResponse object,
+     *         or a 304 status code without a body if the page still matches the If-None-Match header
      */
     @GetMapping("/books")
-    public ResponseEntity<?> getBooks(HttpServletRequest request, @ParameterObject @PageableDefault(sort = "title") Pageable pageable) {
-        defensiveNullCheck(List.of(request, pageable));
-        checkRateLimit(request);
-        return ResponseEntity.status(200).body(new SuccessResponse<>(request, bookService.findAllPaged(pageable)));
+    public ResponseEntity<?> getBooks(HttpServletRequest request, @ParameterObject @PageableDefault(sort = "title") Pageable pageable,
+                                      @ParameterObject BookFilterDto filter, @RequestParam(defaultValue = "true") boolean count) {
+        defensiveNullCheck(List.of(request, pageable, filter));
+        if (!filter.isEmpty()) {
+            PageDto page = bookService.findAllFiltered(filter, pageable);
+            return conditionalResponse(request, ETagMapper.toETag(page), page);
+        }
+        if (count) {
+            PageDto page = bookService.findAllPaged(pageable);
+            return conditionalResponse(request, ETagMapper.toETag(page), page);
+        }
+        SliceDto slice = bookService.findAllSliced(pageable);
+        return conditionalResponse(request, ETagMapper.toETag(slice), slice);
+    }
+
+    /**
+     * Retrieves a cursor paginated list of books, ordered by title.
+     * Unlike '/books', the response carries no totals and the next page is requested with the returned cursor,
+     * so every page costs the same to fetch regardless of how deep into the listing it is.
+     *
+     * @param request the HttpServletRequest object associated with the request
+     * @param after   the cursor returned as nextCursor with the previous page, omitted for the first page
+     * @param size    the maximum number of books on the page, between 1 and {@value #MAX_PAGE_SIZE}
+     * @return A ResponseEntity object containing the HTTP status code and the body, which is a SuccessResponse object
+     *         containing a CursorPageDto, or a 304 status code without a body if the page still matches the If-None-Match header
+     */
+    @GetMapping("/books/cursor")
+    public ResponseEntity<?> getBooksByCursor(HttpServletRequest request, @RequestParam(required = false) String after,
+                                              @RequestParam(defaultValue = "20") int size) {
+        defensiveNullCheck(List.of(request));
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        CursorPageDto page = bookService.findAllAfter(after, pageSize);
+        return conditionalResponse(request, ETagMapper.toETag(page), page);
+    }
+
+    /**
+     * Searches books by title and author, e.g. '/books/search?q=hobbit&finished=false'.
+     * Every word of the query must match the start of a word in the title or author. The search is answered from an
+     * in-memory index, without querying the database. Browsing every book is left to the listing, so a query is required.
+     *
+     * @param request  the HttpServletRequest object associated with the request
+     * @param q        the words to search for. Must not be blank
+     * @param author   when given, only books by this author, ignoring case
+     * @param finished when given, only books whose finished flag has this value
+     * @param size     the maximum number of books returned, between 1 and {@value #MAX_PAGE_SIZE}
+     * @return A ResponseEntity object containing the HTTP status code and the body, which is a SuccessResponse object
+     *         containing a SearchResultDto with the matching books ordered by title and the author and finished facet counts,
+     *         or an ApiResponse object with a 400 status code if the query is missing or blank
+     */
+    @GetMapping("/books/search")
+    public ResponseEntity<?> searchBooks(HttpServletRequest request, @RequestParam(required = false) String q,
+                                         @RequestParam(required = false) String author,
+                                         @RequestParam(required = false) Boolean finished,
+                                         @RequestParam(defaultValue = "20") int size) {
+        defensiveNullCheck(List.of(request));
+        if (q == null || q.isBlank()) {
+            return ResponseEntity.status(400).body(new ApiResponse("Query must not be blank", request));
+        }
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        return ResponseEntity.status(200).body(new SuccessResponse<>(request, bookService.search(q, author, finished, pageSize)));
+    }
+
+    /**
+     * Retrieves many books by their IDs in one call.
+     * Takes precedence over the listing when the 'ids' parameter is present, e.g. '/books?ids=1,2,3'.
+     * Books already cached are served from memory and all others are loaded with a single query.
+     *
+     * @param request the HttpServletRequest object associated with the request
+     * @param ids     the IDs of the books to retrieve, at most {@value #MAX_BATCH_IDS}
+     * @return A ResponseEntity object containing the HTTP status code and the body, which is a SuccessResponse object
+     *         containing the books found, in the order they were requested. IDs without a book are omitted
+     * @throws BatchSizeExceededException if more than {@value #MAX_BATCH_IDS} IDs are requested
+     */
+    @GetMapping(value = "/books", params = "ids")
+    public ResponseEntity<?> getBooksByIds(HttpServletRequest request, @RequestParam List<Long> ids) {
+        defensiveNullCheck(List.of(request, ids));
+        checkBatchSize(ids);
+        return ResponseEntity.status(200).body(new SuccessResponse<>(request, bookService.findAllById(ids)));
     }
 
     /**
@@ -59,21 +161,27 @@ public class BookController {
      * @param request the HttpServletRequest object associated with the request
      * @param id the ID of the book to retrieve
      * @return A ResponseEntity object containing the HTTP status code and the body, which is a SuccessResponse object if the book is found,
-     *         or an ApiResponse object with a 404 status code if the book is not found
+     *         or an ApiResponse object with a 404 status code if the book is not found, or a 304 status code without a body
+     *         if the book still matches the If-None-Match header. With serialized lookups enabled, the data of the
+     *         SuccessResponse is the cached JSON of the book
      */
     @GetMapping("/books/{id}")
     public ResponseEntity<?> getBook(HttpServletRequest request, @PathVariable Long id) {
         defensiveNullCheck(List.of(request, id));
-        checkRateLimit(request);
-        BookEntity bookEntity = bookService.findById(id);
-        return (bookEntity == null) ?
-                ResponseEntity.status(404).body(new ApiResponse("Not Found", request)) :
-                ResponseEntity.status(200).body(new SuccessResponse<>(request, bookEntity));
+        BookResponseDto book = bookService.findById(id);
+        if (book == null) {
+            return ResponseEntity.status(404).body(new ApiResponse("Not Found", request));
+        }
+        String eTag = ETagMapper.toETag(book);
+        return ETagMapper.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag) ?
+                ResponseEntity.status(304).eTag(eTag).build() :
+                ResponseEntity.status(200).eTag(eTag).body(new SuccessResponse<>(request, bookService.toResponseData(book)));
     }
 
     /**
      * Handles HTTP POST requests to '/books' endpoint.
      * Validates a list of book DTOs and saves them to the database if no validation errors are found.
+     * When write-behind is enabled, the books are queued to be saved in the background instead.
      *
      * @param request        the HttpServletRequest object associated with the request
      * @param bookDtos       the list of BookDto objects to be validated and saved
@@ -86,17 +194,62 @@ public class BookController {
      *     </li>
      *     <li>
      *         If the book DTOs are successfully saved, returns a ResponseEntity with 201 Created status code
-     *         and a body of SuccessResponse object containing the saved BookEntity objects
+     *         and a body of SuccessResponse object containing the saved books as BookResponseDto objects
+     *     </li>
+     *     <li>
+     *         If write-behind is enabled and the book DTOs are queued, returns a ResponseEntity with 202 Accepted status
+     *         code, the '/imports/{jobId}' status URL in the Location header, and a body of SuccessResponse object
+     *         containing the ImportJobDto of the new job
      *     </li>
      * </ul>
      */
     @PostMapping("/books")
     public ResponseEntity<?> postBooks(HttpServletRequest request, @Valid @RequestBody List<BookDto> bookDtos, BindingResult bindingResult) {
         defensiveNullCheck(List.of(request, bookDtos, bindingResult));
-        checkRateLimit(request);
-        return (bindingResult.hasErrors()) ?
-                ResponseEntity.status(400).body(new PostFieldErrorResponse(request, bindingResult.getAllErrors())) :
-                ResponseEntity.status(201).body(new SuccessResponse<>(request, bookService.saveAll(bookDtos)));
+        if (bindingResult.hasErrors()) {
+            return ResponseEntity.status(400).body(new PostFieldErrorResponse(request, bindingResult.getAllErrors()));
+        }
+        if (bookWriteBehindService.isEnabled()) {
+            ImportJobDto job = bookWriteBehindService.enqueue(bookDtos);
+            return ResponseEntity.status(202)
+                    .location(URI.create(request.getContextPath() + "/api/v1/imports/" + job.jobId()))
+                    .body(new SuccessResponse<>(request, job));
+        }
+        return ResponseEntity.status(201).body(new SuccessResponse<>(request, bookService.saveAll(bookDtos)));
+    }
+
+    /**
+     * Handles HTTP POST requests to the '/books:import' endpoint.
+     * Streams books from the request body, either as newline-delimited JSON or as a JSON array, validating each book
+     * as it is read and saving valid books in fixed-size batches. Memory use does not depend on the size of the upload.
+     *
+     * @param request the HttpServletRequest object associated with the request, whose body is read as a stream
+     * @return A ResponseEntity object with a 200 OK status code and a body of SuccessResponse object containing
+     *         an ImportSummaryDto with the aggregate counts of the import
+     * @throws IOException if the request body cannot be read or is not valid JSON
+     */
+    @PostMapping(value = "/books:import", consumes = {NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> importBooks(HttpServletRequest request) throws IOException {
+        defensiveNullCheck(List.of(request));
+        return ResponseEntity.status(200).body(new SuccessResponse<>(request, bookImportService.importBooks(request.getInputStream())));
+    }
+
+    /**
+     * Retrieves the status of a write-behind job created by POST '/books'.
+     *
+     * @param request the HttpServletRequest object associated with the request
+     * @param jobId   the ID of the job, as returned when the books were queued
+     * @return A ResponseEntity object containing the HTTP status code and the body, which is a SuccessResponse object
+     *         containing the ImportJobDto of the job, or an ApiResponse object with a 404 status code if the job is
+     *         unknown or its status is no longer kept
+     */
+    @GetMapping("/imports/{jobId}")
+    public ResponseEntity<?> getImportJob(HttpServletRequest request, @PathVariable String jobId) {
+        defensiveNullCheck(List.of(request, jobId));
+        ImportJobDto job = bookWriteBehindService.findJob(jobId);
+        return (job == null) ?
+                ResponseEntity.status(404).body(new ApiResponse("Not Found", request)) :
+                ResponseEntity.status(200).body(new SuccessResponse<>(request, job));
     }
 
     /**
@@ -109,15 +262,53 @@ public class BookController {
     @DeleteMapping("/books/{id}")
     public ResponseEntity<?> deleteBook(HttpServletRequest request, @PathVariable Long id) {
         defensiveNullCheck(List.of(request, id));
-        checkRateLimit(request);
         bookService.deleteById(id);
         return ResponseEntity.noContent().build();
     }
 
-    private void checkRateLimit(HttpServletRequest request) {
-        defensiveNullCheck(List.of(request));
-        if (rateLimitService.isLimited(request)) {
-            throw new RequestLimitExceededException("Too Many Requests");
+    /**
+     * Deletes many books by their IDs in one call, e.g. '/books?ids=1,2,3'. It cannot be combined with an author.
+     *
+     * @param request the HttpServletRequest object associated with the request
+     * @param ids     the IDs of the books to delete, at most {@value #MAX_BATCH_IDS}. IDs without a book are ignored
+     * @return A ResponseEntity object with a 200 OK status code and a body of SuccessResponse object containing
+     *         a DeleteSummaryDto with the number of books deleted
+     * @throws BatchSizeExceededException if more than {@value #MAX_BATCH_IDS} IDs are given
+     */
+    @DeleteMapping(value = "/books", params = {"ids", "!author"})
+    public ResponseEntity<?> deleteBooksByIds(HttpServletRequest request, @RequestParam List<Long> ids) {
+        defensiveNullCheck(List.of(request, ids));
+        checkBatchSize(ids);
+        return ResponseEntity.status(200).body(new SuccessResponse<>(request, new DeleteSummaryDto(bookService.deleteAllById(ids))));
+    }
+
+    /**
+     * Deletes all books of an author in one call, e.g. '/books?author=Someone&finished=true'. It cannot be combined
+     * with IDs.
+     *
+     * @param request  the HttpServletRequest object associated with the request
+     * @param author   the author whose books are deleted
+     * @param finished when given, only the books whose finished flag has this value are deleted
+     * @return A ResponseEntity object with a 200 OK status code and a body of SuccessResponse object containing
+     *         a DeleteSummaryDto with the number of books deleted
+     */
+    @DeleteMapping(value = "/books", params = {"author", "!ids"})
+    public ResponseEntity<?> deleteBooksByAuthor(HttpServletRequest request, @RequestParam String author,
+                                                 @RequestParam(required = false) Boolean finished) {
+        defensiveNullCheck(List.of(request, author));
+        return ResponseEntity.status(200).body(new SuccessResponse<>(request, new DeleteSummaryDto(bookService.deleteAllByAuthor(author, finished))));
+    }
+
+    private ResponseEntity<?> conditionalResponse(HttpServletRequest request, String eTag, Object data) {
+        // The envelope is only built, and the data only serialized, when the client does not already have the data.
+        return ETagMapper.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag) ?
+                ResponseEntity.status(304).eTag(eTag).build() :
+                ResponseEntity.status(200).eTag(eTag).body(new SuccessResponse<>(request, data));
+    }
+
+    private void checkBatchSize(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new BatchSizeExceededException("At most " + MAX_BATCH_IDS + " ids can be given at once");
         }
     }
 
@@ -0,0 +1,33 @@
+package com.marcuslull.bookmanager.dtos;
+
+/**
+ * Represents the optional filters of the book listing, bound from the query parameters of {@code GET /api/v1/books}.
+ * <p>
+ * Filters that are null are not applied. Filtered pages are cached like unfiltered ones, keyed by the filter as well
+ * as the page, size and sort.
+ * </p>
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *     <li>{@code author} &ndash; only books by exactly this author</li>
+ *     <li>{@code finished} &ndash; only books whose finished flag has this value</li>
+ *     <li>{@code minPages} &ndash; only books with at least this many pages</li>
+ *     <li>{@code maxPages} &ndash; only books with at most this many pages</li>
+ * </ul>
+ */
+public record BookFilterDto(
+        String author,
+        Boolean finished,
+        Integer minPages,
+        Integer maxPages
+) {
+
+    /**
+     * Determines whether no filter is applied.
+     *
+     * @return true if every filter is null and the listing is unfiltered
+     */
+    public boolean isEmpty() {
+        return author == null && finished == null && minPages == null && maxPages == null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.marcuslull.bookmanager.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.io.Serializable;
+
+/**
+ * Immutable projection of a stored book, as returned by the API and held in the "books" cache.
+ * <p>
+ * It carries the fields of {@link BookDto} plus the id, and is selected directly by the repository queries, so
+ * responses and cache entries hold no managed entity, no Hibernate state and no deduplication key.
+ * </p>
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *     <li>{@code id} &ndash; the unique identifier of the book</li>
+ *     <li>{@code title} &ndash; the title of the book</li>
+ *     <li>{@code author} &ndash; the author of the book</li>
+ *     <li>{@code pages} &ndash; the number of pages in the book</li>
+ *     <li>{@code bookNumber} &ndash; the number of the book within its series</li>
+ *     <li>{@code finished} &ndash; whether the book has been finished, may be null</li>
+ *     <li>{@code version} &ndash; the version of the stored book, not serialized as it is sent as the ETag instead</li>
+ * </ul>
+ */
+public record BookResponseDto(
+        Long id,
+        String title,
+        String author,
+        Integer pages,
+        Integer bookNumber,
+        Boolean finished,
+        @JsonIgnore Long version
+) implements Serializable {
+}
@@ -0,0 +1,26 @@
+package com.marcuslull.bookmanager.dtos;
+
+import java.util.List;
+
+/**
+ * Represents a page of data in a cursor (keyset) paginated response.
+ * <p>
+ * Unlike {@link PageDto}, this carries no total counts and no page number: the next page is requested with the
+ * opaque {@code nextCursor}, so fetching any page costs the same regardless of how deep into the listing it is.
+ * </p>
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *     <li>{@code pageSize} &ndash; the number of elements on this page</li>
+ *     <li>{@code hasNext} &ndash; indicates if there is a page after this one</li>
+ *     <li>{@code nextCursor} &ndash; the cursor to pass as {@code after} for the next page, or null on the last page</li>
+ *     <li>{@code content} &ndash; the list of content elements within the current page</li>
+ * </ul>
+ */
+public record CursorPageDto(
+        int pageSize,
+        boolean hasNext,
+        String nextCursor,
+        List<?> content
+) {
+}
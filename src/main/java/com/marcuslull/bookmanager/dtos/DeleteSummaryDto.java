@@ -0,0 +1,14 @@
+package com.marcuslull.bookmanager.dtos;
+
+/**
+ * Represents the outcome of a bulk delete.
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *     <li>{@code deleted} &ndash; the number of books removed from the database</li>
+ * </ul>
+ */
+public record DeleteSummaryDto(
+        int deleted
+) {
+}
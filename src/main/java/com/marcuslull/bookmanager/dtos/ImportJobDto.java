@@ -0,0 +1,35 @@
+package com.marcuslull.bookmanager.dtos;
+
+/**
+ * Represents the status of a write-behind job, created for each {@code POST /api/v1/books} when write-behind is
+ * enabled.
+ * <p>
+ * Duplicates found in the request or among books still queued are counted when the job is created, duplicates
+ * found in the database only once the books have been written.
+ * </p>
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *     <li>{@code jobId} &ndash; the identifier to poll the status with</li>
+ *     <li>{@code status} &ndash; {@code PENDING} while books of the job are queued, {@code COMPLETED} once all were written</li>
+ *     <li>{@code received} &ndash; the number of books in the request</li>
+ *     <li>{@code queued} &ndash; the number of books queued to be written</li>
+ *     <li>{@code imported} &ndash; the number of books saved to the database so far</li>
+ *     <li>{@code duplicates} &ndash; the number of books skipped because they were repeated or already existed</li>
+ *     <li>{@code failed} &ndash; the number of books in batches that could not be written</li>
+ * </ul>
+ */
+public record ImportJobDto(
+        String jobId,
+        Status status,
+        int received,
+        int queued,
+        int imported,
+        int duplicates,
+        int failed
+) {
+
+    public enum Status {
+        PENDING, COMPLETED
+    }
+}
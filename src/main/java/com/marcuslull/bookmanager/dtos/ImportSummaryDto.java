@@ -0,0 +1,30 @@
+package com.marcuslull.bookmanager.dtos;
+
+import java.util.List;
+
+/**
+ * Represents the outcome of a streaming bulk import.
+ * <p>
+ * All counts are aggregated over the whole upload, so the size of this object does not grow with the
+ * number of books imported.
+ * </p>
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *     <li>{@code received} &ndash; the number of books read from the request body</li>
+ *     <li>{@code imported} &ndash; the number of books saved to the database</li>
+ *     <li>{@code duplicates} &ndash; the number of valid books skipped because they already existed</li>
+ *     <li>{@code invalid} &ndash; the number of books that failed validation</li>
+ *     <li>{@code batches} &ndash; the number of batches committed</li>
+ *     <li>{@code errorMessages} &ndash; validation messages for the first invalid books, capped in size</li>
+ * </ul>
+ */
+public record ImportSummaryDto(
+        long received,
+        long imported,
+        long duplicates,
+        long invalid,
+        int batches,
+        List<String> errorMessages
+) {
+}
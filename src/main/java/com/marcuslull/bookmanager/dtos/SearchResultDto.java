@@ -0,0 +1,29 @@
+package com.marcuslull.bookmanager.dtos;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the result of a book search, with facet counts for narrowing it down.
+ * <p>
+ * Each facet counts the matching books as if its own filter had not been applied, so the author facet lists every
+ * author the search could be narrowed to, even when it is already filtered by one.
+ * </p>
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *     <li>{@code totalElements} &ndash; the number of books matching the query and all filters</li>
+ *     <li>{@code pageSize} &ndash; the number of books in {@code content}</li>
+ *     <li>{@code content} &ndash; the first matching books, ordered by title</li>
+ *     <li>{@code authors} &ndash; the number of matching books per author, most frequent first</li>
+ *     <li>{@code finished} &ndash; the number of matching books per finished flag</li>
+ * </ul>
+ */
+public record SearchResultDto(
+        long totalElements,
+        int pageSize,
+        List<BookResponseDto> content,
+        Map<String, Long> authors,
+        Map<Boolean, Long> finished
+) {
+}
@@ -0,0 +1,30 @@
+package com.marcuslull.bookmanager.dtos;
+
+import java.util.List;
+
+/**
+ * Represents a slice of data in a paginated response that skips the count query.
+ * <p>
+ * A slice only knows whether another page follows it. Clients that still want a total get
+ * {@code approximateTotalElements}, a cached count that is refreshed periodically rather than per request.
+ * </p>
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *     <li>{@code pageNumber} &ndash; the current page number</li>
+ *     <li>{@code pageSize} &ndash; the number of elements on this page</li>
+ *     <li>{@code firstPage} &ndash; indicates if the current page is the first one</li>
+ *     <li>{@code hasNext} &ndash; indicates if there is a page after this one</li>
+ *     <li>{@code approximateTotalElements} &ndash; the total number of elements as of the last count refresh</li>
+ *     <li>{@code content} &ndash; the list of content elements within the current page</li>
+ * </ul>
+ */
+public record SliceDto(
+        int pageNumber,
+        int pageSize,
+        boolean firstPage,
+        boolean hasNext,
+        long approximateTotalElements,
+        List<?> content
+) {
+}
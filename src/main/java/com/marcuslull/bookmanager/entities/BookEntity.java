@@ -2,6 +2,7 @@ package com.marcuslull.bookmanager.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
 import jakarta.persistence.*;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Digits;
@@ -12,6 +13,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 /**
  * Represents an entity for a book in the database.
  * <p>
@@ -21,13 +29,18 @@ import lombok.Setter;
  *
  * <p><b>Fields:</b></p>
  * <ul>
- *   <li><b>id</b>: The unique identifier for the book entity, generated automatically.</li>
+ *   <li><b>id</b>: The unique identifier for the book entity, generated from the "books_seq" sequence. Identifiers are
+ *   allocated in blocks of {@value #ID_ALLOCATION_SIZE} so that bulk inserts need no sequence round trip per row and
+ *   can be sent as JDBC batches.</li>
  *   <li><b>title</b>: The title of the book, which must be a non-null string of 2 to 50 characters.</li>
  *   <li><b>author</b>: The author of the book, which must be a non-null string of 3 to 50 characters.</li>
  *   <li><b>pages</b>: The number of pages in the book, which must be a non-null positive integer with up to 4 digits.</li>
  *   <li><b>bookNumber</b>: The book number, which must be a non-null positive integer with up to 2 digits.</li>
  *   <li><b>finished</b>: An optional boolean indicating whether the book has been finished.</li>
- *   <li><b>dedupeId</b>: A string used for deduplication purposes, combining the title and pages.</li>
+ *   <li><b>dedupeId</b>: A 64-bit hash of the normalized title, author and pages, used for deduplication.
+ *   The column carries a unique constraint, so duplicates are rejected by the database even under concurrent inserts.</li>
+ *   <li><b>version</b>: The optimistic lock version, assigned by JPA and incremented on every update. Together with the
+ *   id it identifies the state of a book, and is the basis of the ETags returned for it.</li>
  * </ul>
  *
  * <p><b>Constructors:</b></p>
@@ -41,21 +54,35 @@ import lombok.Setter;
  * <ul>
  *   <li><b>fromDto(@Valid BookDto bookDto)</b>: Creates a new BookEntity from a BookDto object.</li>
  *   <li><b>toDto(@Valid BookEntity bookEntity)</b>: Converts a BookEntity to a BookDto object.</li>
+ *   <li><b>toResponseDto(BookEntity bookEntity)</b>: Converts a saved BookEntity to a BookResponseDto object.</li>
  * </ul>
  *
  * <p>
  * This entity is annotated with JPA annotations such as {@code @Entity}, {@code @Id}, {@code @GeneratedValue},
  * and {@code @Column} to map class fields to database columns and enforce unique constraints.
+ * The (title, id) index backs the sorted listing and its keyset pagination. The (author, bookNumber) and finished
+ * indexes back the filtered listing, so e.g. the books of an author ordered by book number are one index range scan.
  * </p>
  */
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity(name = "books")
+@Table(name = "books",
+        uniqueConstraints = @UniqueConstraint(name = BookEntity.DEDUPE_CONSTRAINT_NAME, columnNames = "dedupe_id"),
+        indexes = {
+                @Index(name = "idx_books_title_id", columnList = "title, id"),
+                @Index(name = "idx_books_author_book_number", columnList = "author, bookNumber"),
+                @Index(name = "idx_books_finished", columnList = "finished")
+        })
 public class BookEntity {
+    public static final String DEDUPE_CONSTRAINT_NAME = "uk_books_dedupe_id";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int ID_ALLOCATION_SIZE = 100;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column @NotNull @Size(min = 2, max = 50)
@@ -74,8 +101,11 @@ public class BookEntity {
     private Boolean finished;
 
     @JsonIgnore
-    @Column
-    private String dedupeId;
+    @Column(name = "dedupe_id", nullable = false)
+    private Long dedupeId;
+
+    @Version
+    private Long version;
 
     public BookEntity(String title, String author, Integer pages, Integer bookNumber, Boolean finished) {
         this.title = title;
@@ -84,7 +114,34 @@ public class BookEntity {
         this.bookNumber = bookNumber;
         this.finished = finished;
 
-        dedupeId = this.title + this.pages.toString();
+        dedupeId = dedupeKey(this.title, this.author, this.pages);
+    }
+
+    /**
+     * Computes the deduplication key for a book.
+     *
+     * <p>Title and author are trimmed, lower-cased and have internal whitespace collapsed before hashing, so
+     * trivially different spellings of the same book map to the same key. The key is the first 64 bits of a
+     * SHA-256 digest, which keeps the indexed column fixed-width while making accidental collisions negligible.</p>
+     *
+     * @param title  the title of the book
+     * @param author the author of the book
+     * @param pages  the number of pages in the book
+     * @return the 64-bit deduplication key
+     */
+    public static long dedupeKey(String title, String author, Integer pages) {
+        String normalized = normalize(title) + '\u001F' + normalize(author) + '\u001F' + pages;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return WHITESPACE.matcher(value.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -126,4 +183,19 @@ public class BookEntity {
     public static BookDto toDto(@Valid BookEntity bookEntity) {
         return new BookDto(bookEntity.getTitle(), bookEntity.getAuthor(), bookEntity.getPages(), bookEntity.getBookNumber(), bookEntity.getFinished());
     }
+
+    /**
+     * Converts a saved {@link BookEntity} object to a {@link BookResponseDto}.
+     *
+     * <p>Reads go through the repository projections instead; this is for books that were just saved and are
+     * already in memory.</p>
+     *
+     * @param bookEntity <p>The saved entity, its <code>id</code> and <code>version</code> must be assigned. Must not be null.</p>
+     *
+     * @return <p>A new {@link BookResponseDto} instance with the id and fields of the provided {@link BookEntity}.</p>
+     */
+    public static BookResponseDto toResponseDto(BookEntity bookEntity) {
+        return new BookResponseDto(bookEntity.getId(), bookEntity.getTitle(), bookEntity.getAuthor(), bookEntity.getPages(),
+                bookEntity.getBookNumber(), bookEntity.getFinished(), bookEntity.getVersion());
+    }
 }
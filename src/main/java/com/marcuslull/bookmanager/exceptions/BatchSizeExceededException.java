@@ -0,0 +1,13 @@
+package com.marcuslull.bookmanager.exceptions;
+
+/**
+ * Exception thrown when a client asks for more books in a single batch request than the API allows.
+ *
+ * <p>Batch endpoints bound the number of ids they accept so one request cannot turn into an unbounded
+ * query or response. Exceeding the bound is reported to the client as a bad request.</p>
+ */
+public class BatchSizeExceededException extends RuntimeException {
+    public BatchSizeExceededException(String message) {
+        super(message);
+    }
+}
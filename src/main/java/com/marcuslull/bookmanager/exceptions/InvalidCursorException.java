@@ -0,0 +1,14 @@
+package com.marcuslull.bookmanager.exceptions;
+
+/**
+ * Exception thrown when a pagination cursor supplied by the client cannot be decoded.
+ *
+ * <p>Cursors are opaque to clients and should only ever be values previously returned by the API.
+ * A cursor that has been truncated, altered or invented results in this exception, which is reported
+ * to the client as a bad request.</p>
+ */
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,7 @@
 package com.marcuslull.bookmanager.exceptions;
 
+import lombok.Getter;
+
 /**
  * Exception thrown when a request exceeds the rate limit.
  *
@@ -14,9 +16,21 @@ package com.marcuslull.bookmanager.exceptions;
  *     <li>API rate limiting</li>
  *     <li>Preventing abuse or overuse of resources</li>
  * </ul>
+ *
+ * <p>The exception carries the state of the exhausted budget, which is reported to the client in the
+ * {@code RateLimit-*} and {@code Retry-After} response headers. It is raised for every rejected request, so it is
+ * created without a stack trace to keep rejecting an abusive client cheap.</p>
  */
+@Getter
 public class RequestLimitExceededException extends RuntimeException {
-    public RequestLimitExceededException(String message) {
-        super(message);
+    private final long limit;
+    private final long resetSeconds;
+    private final long retryAfterSeconds;
+
+    public RequestLimitExceededException(String message, long limit, long resetSeconds, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.limit = limit;
+        this.resetSeconds = resetSeconds;
+        this.retryAfterSeconds = retryAfterSeconds;
     }
 }
@@ -0,0 +1,13 @@
+package com.marcuslull.bookmanager.exceptions;
+
+/**
+ * Exception thrown when books cannot be queued for writing because the write-behind queue is full.
+ *
+ * <p>The queue is bounded so a burst of uploads cannot exhaust memory while the writer catches up. The request is
+ * rejected as a whole and reported to the client as temporarily unavailable, so it can be retried later.</p>
+ */
+public class WriteQueueFullException extends RuntimeException {
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+}
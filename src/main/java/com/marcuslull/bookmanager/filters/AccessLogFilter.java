@@ -0,0 +1,42 @@
+package com.marcuslull.bookmanager.filters;
+
+import com.marcuslull.bookmanager.services.AccessLogService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter that records every request in the access log once it has been handled.
+ *
+ * <p>It runs first, ahead of the {@code RateLimitFilter}, so requests rejected by rate limiting are logged with
+ * their 429 status as well. The entry is handed to the {@link AccessLogService}, which formats and writes it on a
+ * background thread.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private final AccessLogService accessLogService;
+
+    public AccessLogFilter(AccessLogService accessLogService) {
+        this.accessLogService = accessLogService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            accessLogService.record(request, response.getStatus(), System.nanoTime() - start);
+        }
+    }
+}
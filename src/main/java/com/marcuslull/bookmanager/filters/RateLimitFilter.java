@@ -0,0 +1,84 @@
+package com.marcuslull.bookmanager.filters;
+
+import com.marcuslull.bookmanager.exceptions.RequestLimitExceededException;
+import com.marcuslull.bookmanager.services.RateLimitPolicy;
+import com.marcuslull.bookmanager.services.RateLimitResult;
+import com.marcuslull.bookmanager.services.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Servlet filter that applies rate limiting to the book endpoints before the request reaches the controller.
+ *
+ * <p>Running ahead of the {@code DispatcherServlet} means a rejected request is never routed, its body is never
+ * deserialized and nothing is validated, so an abusive client costs little more than one rate limit lookup.
+ * Rejections are handed to the {@link HandlerExceptionResolver} as a {@link RequestLimitExceededException}, so the
+ * 429 response is produced by the same {@code GlobalExceptionHandler} as every other error.</p>
+ *
+ * <p>Allowed requests are annotated with the {@code RateLimit-*} headers of their budget. The policy is chosen from
+ * the HTTP method and path:</p>
+ * <ul>
+ *   <li>GET {@code /api/v1/books/{id}}: {@link RateLimitPolicy#GET_BOOK}</li>
+ *   <li>Any other GET below {@code /api/v1/books}, and GET {@code /api/v1/imports/{jobId}}:
+ *   {@link RateLimitPolicy#LIST_BOOKS}</li>
+ *   <li>POST below {@code /api/v1/books}: {@link RateLimitPolicy#POST_BOOKS}</li>
+ *   <li>DELETE below {@code /api/v1/books}: {@link RateLimitPolicy#DELETE_BOOKS}</li>
+ * </ul>
+ * <p>Requests for any other path, such as the API documentation, are not rate limited.</p>
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Pattern BOOKS_PATH = Pattern.compile("/api/v1/(books([/:].*)?|imports/[^/]+)");
+    private static final Pattern BOOK_BY_ID_PATH = Pattern.compile("/api/v1/books/\\d+");
+
+    private final RateLimitService rateLimitService;
+    private final HandlerExceptionResolver handlerExceptionResolver;
+
+    public RateLimitFilter(RateLimitService rateLimitService,
+                           @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        this.rateLimitService = rateLimitService;
+        this.handlerExceptionResolver = handlerExceptionResolver;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return resolvePolicy(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimitResult result = rateLimitService.consume(request, resolvePolicy(request));
+        if (result.limited()) {
+            handlerExceptionResolver.resolveException(request, response, null, new RequestLimitExceededException(
+                    "Too Many Requests", result.limit(), result.resetSeconds(), result.retryAfterSeconds()));
+            return;
+        }
+        response.setHeader(RateLimitResult.LIMIT_HEADER, String.valueOf(result.limit()));
+        response.setHeader(RateLimitResult.REMAINING_HEADER, String.valueOf(result.remaining()));
+        response.setHeader(RateLimitResult.RESET_HEADER, String.valueOf(result.resetSeconds()));
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimitPolicy resolvePolicy(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!BOOKS_PATH.matcher(path).matches()) {
+            return null;
+        }
+        return switch (request.getMethod()) {
+            case "GET", "HEAD" -> BOOK_BY_ID_PATH.matcher(path).matches() ? RateLimitPolicy.GET_BOOK : RateLimitPolicy.LIST_BOOKS;
+            case "POST" -> RateLimitPolicy.POST_BOOKS;
+            case "DELETE" -> RateLimitPolicy.DELETE_BOOKS;
+            default -> null;
+        };
+    }
+}
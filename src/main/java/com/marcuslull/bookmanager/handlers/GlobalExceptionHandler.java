@@ -1,12 +1,21 @@
 package com.marcuslull.bookmanager.handlers;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.marcuslull.bookmanager.entities.BookEntity;
+import com.marcuslull.bookmanager.exceptions.BatchSizeExceededException;
 import com.marcuslull.bookmanager.exceptions.DefensiveNullException;
 import com.marcuslull.bookmanager.exceptions.DuplicateEntityException;
+import com.marcuslull.bookmanager.exceptions.InvalidCursorException;
 import com.marcuslull.bookmanager.exceptions.RequestLimitExceededException;
+import com.marcuslull.bookmanager.exceptions.WriteQueueFullException;
 import com.marcuslull.bookmanager.responses.ApiResponse;
 import com.marcuslull.bookmanager.responses.UnexpectedExceptionResponse;
+import com.marcuslull.bookmanager.services.RateLimitResult;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -18,6 +27,8 @@ import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.resource.NoResourceFoundException;
 
+import java.util.Locale;
+
 /**
  * GlobalExceptionHandler handles various exceptions thrown within the application and provides standardized API responses.
  *
@@ -26,9 +37,13 @@ import org.springframework.web.servlet.resource.NoResourceFoundException;
  *
  * <ul>
  *     <li>{@link #handleHttpMessageNotReadableException(Exception)} - Handles malformed JSON or missing request bodies.</li>
+ *     <li>{@link #handleInvalidCursorException(Exception)} - Handles pagination cursors that cannot be decoded.</li>
+ *     <li>{@link #handleBatchSizeExceededException(Exception)} - Handles batch requests for too many books.</li>
  *     <li>{@link #handleDefensiveNullException(Exception)} - Handles {@link DefensiveNullException} indicating unexpected null arguments.</li>
- *     <li>{@link #handleRequestLimitExceededException(Exception)} - Handles rate limiting by returning status 429.</li>
+ *     <li>{@link #handleRequestLimitExceededException(RequestLimitExceededException)} - Handles rate limiting by returning status 429.</li>
+ *     <li>{@link #handleWriteQueueFullException(Exception)} - Handles a full write-behind queue by returning status 503.</li>
  *     <li>{@link #handleDuplicateEntityException(Exception)} - Handles {@link DuplicateEntityException} indicating duplicate entities.</li>
+ *     <li>{@link #handleDataIntegrityViolationException(Exception)} - Handles duplicates rejected by the book deduplication constraint.</li>
  *     <li>{@link #handleNoResourceFoundException(NoResourceFoundException)} - Handles resource not found situations.</li>
  *     <li>{@link #handleException(Exception)} - Catches all other exceptions not explicitly handled.</li>
  * </ul>
@@ -36,22 +51,53 @@ import org.springframework.web.servlet.resource.NoResourceFoundException;
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    // Room frees up as soon as the writer finishes its current batch.
+    private static final String WRITE_QUEUE_RETRY_AFTER_SECONDS = "1";
 
     /**
-     * Handles the {@link HttpMessageNotReadableException} which is thrown when an HTTP message cannot be read.
+     * Handles the {@link HttpMessageNotReadableException} which is thrown when an HTTP message cannot be read,
+     * and the {@link JsonProcessingException} thrown when a streamed request body turns out to be malformed.
      * This typically happens due to a malformed JSON or missing request body.
      * It logs the exception details and returns a response entity with a status of 400 BAD REQUEST.
      *
      * @param ex The exception that occurred while reading the HTTP message.
      * @return A ResponseEntity containing the status of the error and a detailed ApiResponse.
      */
-    @ExceptionHandler(HttpMessageNotReadableException.class)
+    @ExceptionHandler({HttpMessageNotReadableException.class, JsonProcessingException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<?> handleHttpMessageNotReadableException(Exception ex) {
         logIt(ex);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse("HTTP message body not readable", getRequest()));
     }
 
+    /**
+     * Handles the {@link InvalidCursorException} which is thrown when a pagination cursor supplied by the client
+     * cannot be decoded. It logs the exception details and returns a response entity with a status of 400 BAD REQUEST.
+     *
+     * @param ex The exception that occurred while decoding the cursor.
+     * @return A ResponseEntity containing the status of the error and a detailed ApiResponse.
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<?> handleInvalidCursorException(Exception ex) {
+        logIt(ex);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse(ex.getMessage(), getRequest()));
+    }
+
+    /**
+     * Handles the {@link BatchSizeExceededException} which is thrown when a batch request asks for more books than
+     * the API allows. It logs the exception details and returns a response entity with a status of 400 BAD REQUEST.
+     *
+     * @param ex The exception that occurred while checking the batch size.
+     * @return A ResponseEntity containing the status of the error and a detailed ApiResponse.
+     */
+    @ExceptionHandler(BatchSizeExceededException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<?> handleBatchSizeExceededException(Exception ex) {
+        logIt(ex);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ApiResponse(ex.getMessage(), getRequest()));
+    }
+
     /**
      * Handles the {@link DefensiveNullException} which is thrown when an assumed non-null controller argument is found to be null.
      * This method logs the exception details and returns a response entity with a status of 500 INTERNAL SERVER ERROR.
@@ -70,17 +116,43 @@ public class GlobalExceptionHandler {
 
     /**
      * Handles the {@link RequestLimitExceededException} and returns a response entity with status code 429 (Too Many Requests).
+     * The exception is raised by the {@code RateLimitFilter} and routed here through the {@code HandlerExceptionResolver}.
      *
-     * <p>This method logs the exception and formats a response entity containing the exception's message and the current request information.</p>
+     * <p>This method formats a response entity containing the exception's message and the current request information.
+     * Rejections are routine under load, so they are logged at debug level only.
+     * The state of the exhausted budget is reported in the {@code RateLimit-Limit}, {@code RateLimit-Remaining} and
+     * {@code RateLimit-Reset} headers, and the {@code Retry-After} header tells the client when to try again.</p>
      *
-     * @param ex The exception that was thrown. Expected to be of type RequestLimitExceededException.
+     * @param ex The exception that was thrown.
      * @return A ResponseEntity containing an error message and request details, with HTTP status 429.
      */
     @ExceptionHandler(RequestLimitExceededException.class)
     @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
-    public ResponseEntity<?> handleRequestLimitExceededException(Exception ex) {
+    public ResponseEntity<?> handleRequestLimitExceededException(RequestLimitExceededException ex) {
+        log.debug("Rejected {} {}: rate limit of {} exceeded", getRequest().getMethod(), getRequest().getRequestURI(), ex.getLimit());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(RateLimitResult.LIMIT_HEADER, String.valueOf(ex.getLimit()))
+                .header(RateLimitResult.REMAINING_HEADER, "0")
+                .header(RateLimitResult.RESET_HEADER, String.valueOf(ex.getResetSeconds()))
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiResponse(ex.getMessage(), getRequest()));
+    }
+
+    /**
+     * Handles the {@link WriteQueueFullException} which is thrown when posted books cannot be queued because the
+     * write-behind queue is full. It logs the exception details and returns a response entity with a status of
+     * 503 SERVICE UNAVAILABLE, whose {@code Retry-After} header tells the client when to try again.
+     *
+     * @param ex The exception that occurred while queueing the books.
+     * @return A ResponseEntity containing the status of the error and a detailed ApiResponse.
+     */
+    @ExceptionHandler(WriteQueueFullException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<?> handleWriteQueueFullException(Exception ex) {
         logIt(ex);
-        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(new ApiResponse(ex.getMessage(), getRequest()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, WRITE_QUEUE_RETRY_AFTER_SECONDS)
+                .body(new ApiResponse(ex.getMessage(), getRequest()));
     }
 
     /**
@@ -99,6 +171,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(ex.getMessage(), getRequest()));
     }
 
+    /**
+     * Handles exceptions of type DataIntegrityViolationException.
+     * <p>
+     * The book deduplication key is backed by a unique constraint, so a concurrent request that inserts the same book
+     * between our deduplication check and the commit is rejected by the database. This is reported to the client
+     * the same way as a {@link DuplicateEntityException}. A violation surfaced by an explicit flush is not translated
+     * by Spring and arrives as Hibernate's {@link ConstraintViolationException}, so both are handled here. Any other
+     * violated constraint is an unexpected error and is handled by {@link #handleException(Exception)}.
+     *
+     * @param ex the exception that was thrown
+     * @return A ResponseEntity containing an ApiResponse with a conflict status and a message, or an
+     *         UnexpectedExceptionResponse with an internal server error status
+     */
+    @ExceptionHandler({DataIntegrityViolationException.class, ConstraintViolationException.class})
+    public ResponseEntity<?> handleDataIntegrityViolationException(Exception ex) {
+        if (!isDuplicateBook(ex)) {
+            return handleException(ex);
+        }
+        logIt(ex);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse("Book(s) already exist", getRequest()));
+    }
+
     /**
      * Handles exceptions of type NoResourceFoundException and MethodArgumentTypeMismatchException.
      *
@@ -134,6 +228,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new UnexpectedExceptionResponse("An unexpected error occurred", getRequest()));
     }
 
+    private static boolean isDuplicateBook(Exception ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                // Databases report the name in their own case and decorated, e.g. "PUBLIC.UK_BOOKS_DEDUPE_ID_INDEX_3".
+                return violation.getConstraintName() != null
+                        && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(BookEntity.DEDUPE_CONSTRAINT_NAME);
+            }
+        }
+        return false;
+    }
+
     private void logIt(Exception ex) {
         log.error(ex.getMessage(), ex);
     }
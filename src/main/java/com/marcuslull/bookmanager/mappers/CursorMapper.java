@@ -0,0 +1,59 @@
+package com.marcuslull.bookmanager.mappers;
+
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * <p>
+ * A utility class for mapping between keyset positions and the opaque cursors handed to clients.
+ * </p>
+ *
+ * <p>
+ * The book listing is ordered by title and then id, so the position after a book is fully described by those two
+ * values. They are encoded as URL-safe Base64 so that clients treat the cursor as opaque and can pass it back
+ * unmodified as a query parameter.
+ * </p>
+ */
+public class CursorMapper {
+    private static final char SEPARATOR = ':';
+
+    /**
+     * A decoded position in the book listing: the title and id of the last book on the previous page.
+     *
+     * @param title the title of the last book seen
+     * @param id    the id of the last book seen
+     */
+    public record Cursor(String title, Long id) {
+    }
+
+    /**
+     * Encodes the position after the given book as an opaque cursor.
+     *
+     * @param book the last {@link BookResponseDto} on a page.
+     * @return a URL-safe cursor string identifying the position after the book.
+     */
+    public static String toCursor(BookResponseDto book) {
+        String position = book.id().toString() + SEPARATOR + book.title();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #toCursor(BookResponseDto)}.
+     *
+     * @param cursor the cursor string supplied by the client.
+     * @return the decoded {@link Cursor}.
+     * @throws InvalidCursorException if the cursor is not a valid encoded position.
+     */
+    public static Cursor fromCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(SEPARATOR);
+            return new Cursor(position.substring(separator + 1), Long.valueOf(position.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.marcuslull.bookmanager.mappers;
+
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.CursorPageDto;
+import com.marcuslull.bookmanager.dtos.PageDto;
+import com.marcuslull.bookmanager.dtos.SliceDto;
+
+import java.util.List;
+
+/**
+ * <p>
+ * A utility class for deriving ETags from book responses and evaluating {@code If-None-Match} headers against them.
+ * </p>
+ *
+ * <p>
+ * A single book has a strong ETag made of its id and version, which change together with its representation.
+ * A page has a weak ETag hashed from the ids and versions of the books on it and from the page metadata, so it
+ * changes whenever any book on the page, or the page's position in the listing, changes.
+ * </p>
+ */
+public class ETagMapper {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Derives the strong ETag of a single book.
+     *
+     * @param book the {@link BookResponseDto} returned in the response.
+     * @return the quoted ETag, e.g. {@code "12-3"}.
+     */
+    public static String toETag(BookResponseDto book) {
+        return "\"" + book.id() + '-' + book.version() + "\"";
+    }
+
+    /**
+     * Derives the weak ETag of a page.
+     *
+     * @param page the {@link PageDto} returned in the response.
+     * @return the weak ETag, e.g. {@code W/"1f3a..."}.
+     */
+    public static String toETag(PageDto page) {
+        return toWeakETag(page.content(), page.totalElements(), page.pageNumber(), page.pageSize());
+    }
+
+    /**
+     * Derives the weak ETag of a slice.
+     *
+     * @param slice the {@link SliceDto} returned in the response.
+     * @return the weak ETag, e.g. {@code W/"1f3a..."}.
+     */
+    public static String toETag(SliceDto slice) {
+        return toWeakETag(slice.content(), slice.approximateTotalElements(), slice.pageNumber(), slice.hasNext() ? 1 : 0);
+    }
+
+    /**
+     * Derives the weak ETag of a cursor page.
+     *
+     * @param page the {@link CursorPageDto} returned in the response.
+     * @return the weak ETag, e.g. {@code W/"1f3a..."}.
+     */
+    public static String toETag(CursorPageDto page) {
+        return toWeakETag(page.content(), page.pageSize(), page.hasNext() ? 1 : 0);
+    }
+
+    /**
+     * Determines whether an {@code If-None-Match} header matches an ETag, using the weak comparison HTTP requires
+     * for {@code If-None-Match}.
+     *
+     * @param ifNoneMatch the value of the {@code If-None-Match} header, may be null.
+     * @param eTag        the current ETag of the resource.
+     * @return true if the client already has the current representation and a 304 can be returned.
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = stripWeakness(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || stripWeakness(trimmed).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String toWeakETag(List<?> content, long... metadata) {
+        // 64-bit FNV-1a over the metadata and the (id, version) of every book, in page order.
+        long hash = FNV_OFFSET_BASIS;
+        for (long value : metadata) {
+            hash = (hash ^ value) * FNV_PRIME;
+        }
+        for (Object element : content) {
+            if (element instanceof BookResponseDto book) {
+                hash = (hash ^ book.id()) * FNV_PRIME;
+                hash = (hash ^ (book.version() == null ? -1 : book.version())) * FNV_PRIME;
+            }
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    private static String stripWeakness(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+}
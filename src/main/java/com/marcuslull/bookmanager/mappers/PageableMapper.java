@@ -1,8 +1,10 @@
 package com.marcuslull.bookmanager.mappers;
 
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
 import com.marcuslull.bookmanager.dtos.PageDto;
-import com.marcuslull.bookmanager.entities.BookEntity;
+import com.marcuslull.bookmanager.dtos.SliceDto;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 /**
  * <p>
@@ -10,7 +12,8 @@ import org.springframework.data.domain.Page;
  * </p>
  *
  * <p>
- * Provides functionality to transform a paginated list of {@link BookEntity} objects into a {@link PageDto}.
+ * Provides functionality to transform a paginated list of {@link BookResponseDto} objects into a {@link PageDto},
+ * or a {@link Slice} of them into a {@link SliceDto}.
  * </p>
  *
  * <ul>
@@ -21,12 +24,12 @@ import org.springframework.data.domain.Page;
 public class PageableMapper {
 
     /**
-     * Converts a {@link Page} of {@link BookEntity} objects into a {@link PageDto}.
+     * Converts a {@link Page} of {@link BookResponseDto} objects into a {@link PageDto}.
      *
      * <p>This method extracts pagination information and content from the provided {@link Page} object
      * and maps it to a new {@link PageDto} instance.</p>
      *
-     * @param page the {@link Page} object containing {@link BookEntity} instances, along with pagination data.
+     * @param page the {@link Page} object containing {@link BookResponseDto} instances, along with pagination data.
      *             <ul>
      *                 <li>totalPages - the total number of available pages.</li>
      *                 <li>totalElements - the total number of available elements.</li>
@@ -39,7 +42,7 @@ public class PageableMapper {
      *
      * @return a {@link PageDto} containing the paginated data from the given {@link Page} object.
      */
-    public static PageDto pageableToPageDto(Page<BookEntity> page) {
+    public static PageDto pageableToPageDto(Page<BookResponseDto> page) {
         return new PageDto(
                 page.getTotalPages(),
                 page.getTotalElements(),
@@ -50,4 +53,25 @@ public class PageableMapper {
                 page.getContent()
         );
     }
+
+    /**
+     * Converts a {@link Slice} of {@link BookResponseDto} objects into a {@link SliceDto}.
+     *
+     * <p>A slice carries no totals, the separately obtained approximate total is attached instead.</p>
+     *
+     * @param slice                    the {@link Slice} object containing {@link BookResponseDto} instances.
+     * @param approximateTotalElements the approximate total number of books.
+     *
+     * @return a {@link SliceDto} containing the data from the given {@link Slice} object.
+     */
+    public static SliceDto sliceToSliceDto(Slice<BookResponseDto> slice, long approximateTotalElements) {
+        return new SliceDto(
+                slice.getNumber(),
+                slice.getNumberOfElements(),
+                slice.isFirst(),
+                slice.hasNext(),
+                approximateTotalElements,
+                slice.getContent()
+        );
+    }
 }
@@ -1,26 +1,73 @@
 package com.marcuslull.bookmanager.repositories;
 
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
 import com.marcuslull.bookmanager.entities.BookEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * BookRepository is an interface for performing CRUD operations on the BookEntity.
  * It extends the CrudRepository interface provided by Spring Data JPA, adding custom methods
- * specific to book entities.
+ * specific to book entities, and the JpaSpecificationExecutor interface for the filtered listing, whose queries are
+ * built by {@link BookSpecifications}.
  *
  * <p><b>Custom Methods:</b></p>
  * <ul>
- *   <li>{@link #existsByDedupeId(String)}: Checks whether a book entity exists with the given deduplication ID.</li>
- *   <li>{@link #findAll(Pageable)}: Retrieves a paginated list of book entities.</li>
+ *   <li>{@link #findExistingDedupeIds(Collection)}: Returns which of the given deduplication IDs already exist, in a single query.</li>
+ *   <li>{@link #findProjectedById(Long)}: Retrieves a book by its ID.</li>
+ *   <li>{@link #findProjectedByIdIn(Collection)}: Retrieves the books with the given IDs, in a single query.</li>
+ *   <li>{@link #findPageBy(Pageable)}: Retrieves a paginated list of books.</li>
+ *   <li>{@link #findSliceBy(Pageable)}: Retrieves a slice of books without running a count query.</li>
+ *   <li>{@link #findFirstByKeyset(Limit)}: Retrieves the first books in (title, id) order, for keyset pagination.</li>
+ *   <li>{@link #findAfterKeyset(String, Long, Limit)}: Retrieves the books following a (title, id) position, for keyset pagination.</li>
+ *   <li>{@link #findIdsByAuthor(String, Boolean)}: Returns the IDs of the books by an author, optionally only those (not) finished.</li>
+ *   <li>{@link #deleteAllByIdIn(Collection)}: Deletes the books with the given IDs in a single statement.</li>
  * </ul>
  *
- * <p>Book entities are represented by the {@link BookEntity} class, and the primary key type is Long.</p>
+ * <p>Book entities are represented by the {@link BookEntity} class, and the primary key type is Long.
+ * Reads select the {@link BookResponseDto} projection rather than managed entities, so nothing read for a response
+ * enters the persistence context.</p>
  */
-public interface BookRepository extends CrudRepository<BookEntity, Long> {
+public interface BookRepository extends CrudRepository<BookEntity, Long>, JpaSpecificationExecutor<BookEntity> {
+
+    @Query("select b.dedupeId from books b where b.dedupeId in :dedupeIds")
+    Set<Long> findExistingDedupeIds(@Param("dedupeIds") Collection<Long> dedupeIds);
+
+    Optional<BookResponseDto> findProjectedById(Long id);
+
+    List<BookResponseDto> findProjectedByIdIn(Collection<Long> ids);
+
+    Page<BookResponseDto> findPageBy(Pageable pageable);
+
+    Slice<BookResponseDto> findSliceBy(Pageable pageable);
+
+    @Query("select new com.marcuslull.bookmanager.dtos.BookResponseDto(b.id, b.title, b.author, b.pages, b.bookNumber, b.finished, b.version) " +
+            "from books b order by b.title, b.id")
+    List<BookResponseDto> findFirstByKeyset(Limit limit);
+
+    // The redundant `b.title >= :title` bounds the scan to a range of the (title, id) index, where the
+    // disjunction on its own would not be recognised as one.
+    @Query("select new com.marcuslull.bookmanager.dtos.BookResponseDto(b.id, b.title, b.author, b.pages, b.bookNumber, b.finished, b.version) " +
+            "from books b where b.title >= :title and (b.title > :title or b.id > :id) order by b.title, b.id")
+    List<BookResponseDto> findAfterKeyset(@Param("title") String title, @Param("id") Long id, Limit limit);
 
-    boolean existsByDedupeId(String dedupeId);
+    @Query("select b.id from books b where b.author = :author and (:finished is null or b.finished = :finished)")
+    List<Long> findIdsByAuthor(@Param("author") String author, @Param("finished") Boolean finished);
 
-    Page<BookEntity> findAll(Pageable pageable);
+    // Unlike CrudRepository.deleteAllById, which loads and removes each entity in turn, this is one DELETE statement.
+    @Modifying
+    @Query("delete from books b where b.id in :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,48 @@
+package com.marcuslull.bookmanager.repositories;
+
+import com.marcuslull.bookmanager.dtos.BookFilterDto;
+import com.marcuslull.bookmanager.entities.BookEntity;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * A utility class for building the {@link Specification} queries of the filtered book listing.
+ * </p>
+ *
+ * <p>
+ * Only the filters that are set become predicates. Leaving an unset filter out of the query entirely, rather than
+ * writing it as {@code (:param is null or ...)}, lets the database use the (author, bookNumber) and finished indexes
+ * of {@link BookEntity} as range scans.
+ * </p>
+ */
+public class BookSpecifications {
+
+    /**
+     * Builds the specification matching the books that pass every set filter.
+     *
+     * @param filter the {@link BookFilterDto} to apply. Must not be null.
+     * @return a {@link Specification} of the books matching the filter.
+     */
+    public static Specification<BookEntity> matching(BookFilterDto filter) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.author() != null) {
+                predicates.add(builder.equal(root.get("author"), filter.author()));
+            }
+            if (filter.finished() != null) {
+                predicates.add(builder.equal(root.get("finished"), filter.finished()));
+            }
+            if (filter.minPages() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("pages"), filter.minPages()));
+            }
+            if (filter.maxPages() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("pages"), filter.maxPages()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
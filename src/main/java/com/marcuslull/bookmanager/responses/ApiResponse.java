@@ -4,7 +4,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
-import lombok.extern.slf4j.Slf4j;
 
 import java.time.Instant;
 import java.util.Date;
@@ -22,15 +21,16 @@ import java.util.Date;
  *   <li><b>status</b>: Status message indicating the result of the request.</li>
  * </ul>
  *
- * <p>This class is primarily used to log API responses and provide consistency in the API response format.
+ * <p>This class is primarily used to provide consistency in the API response format.
  * Subclasses can extend this class to include additional information specific to different types of responses.
+ * Responses are not logged here: the envelope fields of every request are written to the access log by the
+ * {@code AccessLogFilter}, off the request thread.
  * </p>
  *
  * <p><b>Example of subclass usage:</b> A success response might include additional data, while an error response
  * might include a list of validation errors.
  * </p>
  */
-@Slf4j
 @Getter
 @Setter
 @ToString
@@ -49,11 +49,5 @@ public class ApiResponse {
         this.method = request.getMethod();
         this.path = request.getRequestURI();
         this.status = status;
-
-        logResponse();
-    }
-
-    private void logResponse() {
-        log.info("{}", this);
     }
 }
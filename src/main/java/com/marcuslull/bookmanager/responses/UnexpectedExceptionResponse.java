@@ -10,8 +10,8 @@ import jakarta.servlet.http.HttpServletRequest;
  * It is intended to provide a consistent format for logging and debugging unexpected exceptions
  * encountered during API request processing.
  *
- * <p>When an instance of this class is created, the details of the request and the response status
- * are automatically logged for debugging purposes.
+ * <p>The exception itself is logged by the {@code GlobalExceptionHandler}, and the request and response status
+ * are recorded in the access log.
  *
  * <p><b>Inherited Properties:</b>
  * <ul>
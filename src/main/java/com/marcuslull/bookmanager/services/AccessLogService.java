@@ -0,0 +1,129 @@
+package com.marcuslull.bookmanager.services;
+
+import com.marcuslull.bookmanager.configurations.AccessLogProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service that writes the access log off the request thread.
+ *
+ * <p>Request threads only capture the envelope fields of a response into a small {@link AccessLogEntry} and offer
+ * it to a bounded ring buffer, which never blocks. A single background thread drains the buffer in batches and
+ * formats and writes the entries to the {@code access} logger. Response bodies are never formatted.</p>
+ *
+ * <p>Successful requests are sampled at {@code bookmanager.access-log.sample-rate}, error responses are always
+ * recorded. Entries that arrive while the buffer is full are dropped and counted in {@link #getDropped()}, which is
+ * also published as the {@code access.log.dropped} metric.</p>
+ */
+@Slf4j(topic = "access")
+@Service
+public class AccessLogService {
+    private static final int DRAIN_BATCH_SIZE = 256;
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final BlockingQueue<AccessLogEntry> buffer;
+    private final double sampleRate;
+    private final AtomicLong dropped = new AtomicLong();
+    private Thread writer;
+
+    public AccessLogService(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        this.buffer = new ArrayBlockingQueue<>(properties.bufferSize());
+        this.sampleRate = properties.sampleRate();
+        FunctionCounter.builder("access.log.dropped", dropped, AtomicLong::get)
+                .description("Access log entries dropped because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The envelope fields of one response, as captured on the request thread.
+     *
+     * @param timestamp     the time the response completed
+     * @param requestId     the servlet container's identifier of the request
+     * @param clientIp      the IP address of the client
+     * @param method        the HTTP method of the request
+     * @param path          the request URI path
+     * @param status        the HTTP status code of the response
+     * @param durationNanos the time spent handling the request
+     */
+    public record AccessLogEntry(Instant timestamp, String requestId, String clientIp, String method, String path,
+                                 int status, long durationNanos) {
+    }
+
+    /**
+     * Records a completed request in the access log, unless it is sampled out or the buffer is full.
+     *
+     * @param request       the completed request
+     * @param status        the HTTP status code of the response
+     * @param durationNanos the time spent handling the request
+     */
+    public void record(HttpServletRequest request, int status, long durationNanos) {
+        if (status < 400 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        AccessLogEntry entry = new AccessLogEntry(Instant.now(), request.getRequestId(), request.getRemoteAddr(),
+                request.getMethod(), request.getRequestURI(), status, durationNanos);
+        if (!buffer.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of entries dropped because the buffer was full.
+     *
+     * @return the number of dropped entries since startup
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    int getPending() {
+        return buffer.size();
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = Thread.ofPlatform().name("access-log-writer").daemon().start(this::drain);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        writer.interrupt();
+        writer.join(SHUTDOWN_TIMEOUT);
+    }
+
+    private void drain() {
+        List<AccessLogEntry> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(buffer.take());
+                buffer.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+                batch.forEach(this::write);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Shutting down: whatever is still buffered is written before the thread ends.
+            buffer.drainTo(batch);
+            batch.forEach(this::write);
+        }
+    }
+
+    private void write(AccessLogEntry entry) {
+        log.info("{} {} {} {} {} {} {}ms", entry.timestamp(), entry.requestId(), entry.clientIp(), entry.method(),
+                entry.path(), entry.status(), TimeUnit.NANOSECONDS.toMillis(entry.durationNanos()));
+    }
+}
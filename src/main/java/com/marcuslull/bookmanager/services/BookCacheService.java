@@ -1,19 +1,41 @@
 package com.marcuslull.bookmanager.services;
 
-import com.marcuslull.bookmanager.entities.BookEntity;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.marcuslull.bookmanager.dtos.BookFilterDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.PageDto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
 
 /**
- * Service interface for caching book entities.
+ * Service interface for caching book entities and listing pages.
  *
- * <p>This interface provides methods for caching and retrieving book entities using their unique identifiers.
+ * <p>This interface provides methods for caching and retrieving book entities using their unique identifiers,
+ * and pages of the book listing using their page, size and sort.
  * The intended purpose of this service is to optimize book entity retrieval by reducing database access through caching.
+ * Books are cached as immutable {@link BookResponseDto} projections rather than managed entities.
  * </p>
  *
  * <p><b>Methods:</b></p>
  * <ul>
  *   <li>{@link #findBookById(Long)}: Finds and retrieves a book entity by its unique identifier.</li>
- *   <li>{@link #putBook(BookEntity)}: Caches a book entity.</li>
+ *   <li>{@link #findBooksByIds(Collection)}: Finds and retrieves many book entities by their unique identifiers.</li>
+ *   <li>{@link #findBookJson(Long)}: Finds and retrieves the serialized JSON of a book by its unique identifier.</li>
+ *   <li>{@link #putBook(BookResponseDto)}: Caches a book entity.</li>
+ *   <li>{@link #putBooks(Supplier)}: Reads and caches many book entities at once.</li>
+ *   <li>{@link #findRecentlyReadBookIds(int)}: Returns the identifiers of the most recently read cached books.</li>
  *   <li>{@link #cacheEvictBook(Long)}: Removes a book entity from the cache.</li>
+ *   <li>{@link #cacheEvictBooks(Collection)}: Removes many book entities from the cache at once.</li>
+ *   <li>{@link #cacheEvictMisses(Collection)}: Forgets that identifiers had no book.</li>
+ *   <li>{@link #findPage(Pageable)}: Finds and retrieves a page of book entities.</li>
+ *   <li>{@link #findSlice(Pageable)}: Finds and retrieves a slice of book entities without counting them.</li>
+ *   <li>{@link #findFilteredPage(BookFilterDto, Pageable)}: Finds and retrieves a page of the book entities matching a filter.</li>
+ *   <li>{@link #countBooks()}: Returns the approximate total number of books.</li>
+ *   <li>{@link #cacheEvictPages()}: Removes all pages from the cache.</li>
  * </ul>
  */
 public interface BookCacheService {
@@ -21,20 +43,55 @@ public interface BookCacheService {
     /**
      * Finds and retrieves a book entity by its unique identifier.
      *
+     * <p>Identifiers without a book are remembered in the bounded "bookMisses" cache for a short time, so repeated
+     * lookups of a missing book do not each query the database. Caching a book with such an identifier forgets the
+     * miss, and a cached book always takes precedence over a remembered miss, so a miss recorded by a lookup that
+     * raced with the book being cached is never served.</p>
+     *
      * @param id <p>The unique identifier of the book entity to be retrieved.
      *           This identifier must be non-null and of type {@link Long}.</p>
      *
-     * @return <p>The {@link BookEntity} corresponding to the provided identifier, or
+     * @return <p>The {@link BookResponseDto} corresponding to the provided identifier, or
      *         <code>null</code> if no such entity exists in the cache or database.</p>
      */
-    BookEntity findBookById(Long id);
+    BookResponseDto findBookById(Long id);
+
+    /**
+     * Finds and retrieves many book entities by their unique identifiers.
+     *
+     * <p>All identifiers are looked up in the "books" cache in one bulk operation. Those that miss are loaded
+     * together with a single query and the books found are added to the cache. Identifiers remembered as missing
+     * are skipped, and those not found are remembered, as in {@link #findBookById(Long)}.</p>
+     *
+     * @param ids <p>The unique identifiers of the book entities to be retrieved, without repeats.
+     *            This must be non-null.</p>
+     *
+     * @return <p>The {@link BookResponseDto} objects found, in the iteration order of {@code ids}.
+     *         Identifiers without a book are omitted.</p>
+     */
+    List<BookResponseDto> findBooksByIds(Collection<Long> ids);
 
     /**
-     * Caches a {@link BookEntity} in the book cache.
+     * Finds and retrieves the serialized JSON of a book by its unique identifier.
+     *
+     * <p>The JSON is cached in the "bookJson" cache together with its UTF-8 encoding, so it can be written into a
+     * response as is. On a miss the book is read as by {@link #findBookById(Long)}. The entry is discarded whenever the
+     * book is put into or evicted from the "books" cache.</p>
+     *
+     * @param id <p>The unique identifier of the book to be retrieved. This must be non-null.</p>
+     *
+     * @return <p>The JSON of the {@link BookResponseDto} corresponding to the provided identifier, or
+     *         <code>null</code> if no such book exists.</p>
+     */
+    SerializedString findBookJson(Long id);
+
+    /**
+     * Caches a {@link BookResponseDto} in the book cache.
      *
      * <p>This method stores the provided book entity in the cache to optimize retrieval and reduce database access.
      * If the book entity already exists in the cache, it will be updated with the new information.
-     * The caching mechanism is intended to improve the performance of subsequent lookups for the same book entity.</p>
+     * The caching mechanism is intended to improve the performance of subsequent lookups for the same book entity.
+     * A remembered miss for the identifier of the book is discarded, so a newly created book is found at once.</p>
      *
      * <p><b>Usage:</b></p>
      * <ul>
@@ -42,11 +99,36 @@ public interface BookCacheService {
      *   <li>Update an existing book entity in the cache</li>
      * </ul>
      *
-     * @param bookEntity <p>The {@link BookEntity} to be cached. This entity must be non-null and fully populated with valid data.</p>
+     * @param book <p>The {@link BookResponseDto} to be cached. This must be non-null and fully populated with valid data.</p>
+     *
+     * @return <p>The {@link BookResponseDto} that was stored in the cache. It is the same object that was passed as an argument.</p>
+     */
+    BookResponseDto putBook(BookResponseDto book);
+
+    /**
+     * Reads many {@link BookResponseDto} objects and caches them in the book cache, for warming up the cache.
+     *
+     * <p>Books that are already cached are kept, as they are at least as recent as the books read. If any book is
+     * evicted while the books are read, for instance because it was deleted, the books read are not cached, so a
+     * deleted book is never brought back from a stale read. Any remembered miss of the cached books is discarded.</p>
+     *
+     * @param reader <p>Reads the books to be cached. This must be non-null.</p>
+     *
+     * @return <p>The books read, whether or not they were cached.</p>
+     */
+    List<BookResponseDto> putBooks(Supplier<List<BookResponseDto>> reader);
+
+    /**
+     * Returns the identifiers of the cached books that were read most recently.
+     *
+     * <p>The order is taken from the access order the "books" cache keeps for its expiry, so no bookkeeping is added
+     * to reads.</p>
+     *
+     * @param limit <p>The maximum number of identifiers returned.</p>
      *
-     * @return <p>The {@link BookEntity} that was stored in the cache. It is the same entity that was passed as an argument.</p>
+     * @return <p>The identifiers, most recently read first.</p>
      */
-    BookEntity putBook(BookEntity bookEntity);
+    List<Long> findRecentlyReadBookIds(int limit);
 
     /**
      * Removes a book entity from the cache.
@@ -65,4 +147,82 @@ public interface BookCacheService {
      *           This identifier must be non-null and of type {@link Long}.</p>
      */
     void cacheEvictBook(Long id);
+
+    /**
+     * Removes many book entities from the cache.
+     *
+     * <p>All identifiers are evicted in one bulk operation, for use after a bulk delete. Identifiers that are not
+     * cached are ignored.</p>
+     *
+     * @param ids <p>The unique identifiers of the book entities to be removed from the cache. This must be non-null.</p>
+     */
+    void cacheEvictBooks(Collection<Long> ids);
+
+    /**
+     * Forgets that identifiers had no book.
+     *
+     * <p>For books saved without being cached, such as bulk imports, so that a remembered miss does not hide a newly
+     * created book until it expires. Identifiers without a remembered miss are ignored.</p>
+     *
+     * @param ids <p>The unique identifiers of the newly saved books. This must be non-null.</p>
+     */
+    void cacheEvictMisses(Collection<Long> ids);
+
+    /**
+     * Finds and retrieves a page of book entities.
+     *
+     * <p>Pages are cached by their page number, size and sort, so repeated listing requests are served from memory
+     * without running either the page query or the count query.</p>
+     *
+     * @param pageable <p>The pagination information, including page number, size, and sorting criteria.
+     *                 This must be non-null.</p>
+     *
+     * @return <p>A {@link PageDto} representing the requested page of book entities.</p>
+     */
+    PageDto findPage(Pageable pageable);
+
+    /**
+     * Finds and retrieves a slice of book entities.
+     *
+     * <p>A slice only determines whether a next page exists, so no count query is run. Slices share the
+     * "bookPages" cache and its eviction with {@link #findPage(Pageable)}.</p>
+     *
+     * @param pageable <p>The pagination information, including page number, size, and sorting criteria.
+     *                 This must be non-null.</p>
+     *
+     * @return <p>A {@link Slice} of books.</p>
+     */
+    Slice<BookResponseDto> findSlice(Pageable pageable);
+
+    /**
+     * Finds and retrieves a page of the book entities matching a filter.
+     *
+     * <p>Filtered pages share the "bookPages" cache and its eviction with {@link #findPage(Pageable)}, keyed by the
+     * filter as well as the page number, size and sort.</p>
+     *
+     * @param filter   <p>The filters to apply, of which at least one should be set. This must be non-null.</p>
+     * @param pageable <p>The pagination information, including page number, size, and sorting criteria.
+     *                 This must be non-null.</p>
+     *
+     * @return <p>A {@link PageDto} representing the requested page of the matching book entities.</p>
+     */
+    PageDto findFilteredPage(BookFilterDto filter, Pageable pageable);
+
+    /**
+     * Returns the approximate total number of books.
+     *
+     * <p>The count is cached and recomputed in the background at most once per configured refresh interval, so it may
+     * lag behind recent additions and deletions. Only the first call waits for the count to be computed.</p>
+     *
+     * @return <p>The number of books as of the last refresh.</p>
+     */
+    long countBooks();
+
+    /**
+     * Removes all pages from the cache.
+     *
+     * <p>Any change to the set of books can shift the content and totals of every page, so all cached pages are
+     * discarded whenever books are added or removed.</p>
+     */
+    void cacheEvictPages();
 }
@@ -1,35 +1,215 @@
 package com.marcuslull.bookmanager.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.marcuslull.bookmanager.dtos.BookFilterDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.PageDto;
 import com.marcuslull.bookmanager.entities.BookEntity;
+import com.marcuslull.bookmanager.mappers.PageableMapper;
 import com.marcuslull.bookmanager.repositories.BookRepository;
+import com.marcuslull.bookmanager.repositories.BookSpecifications;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
 
 @Service
 public class BookCacheServiceImpl implements BookCacheService {
 
     private final BookRepository bookRepository;
+    // Native views of the "books", "bookJson" and "bookMisses" caches, for the bulk, nested and negative lookups the
+    // caching annotations cannot express.
+    private final Cache<Object, Object> booksCache;
+    private final Cache<Object, Object> bookJsonCache;
+    private final Cache<Object, Object> bookMissesCache;
+    private final ObjectWriter bookWriter;
+    // Counts evictions from the "books" cache, so a bulk put can tell whether its books were read before one of them
+    // was evicted.
+    private final AtomicLong bookEvictions = new AtomicLong();
 
-    public BookCacheServiceImpl(BookRepository bookRepository) {
+    public BookCacheServiceImpl(BookRepository bookRepository, CacheManager cacheManager, ObjectMapper objectMapper) {
         this.bookRepository = bookRepository;
+        this.booksCache = nativeCache(cacheManager, "books");
+        this.bookJsonCache = nativeCache(cacheManager, "bookJson");
+        this.bookMissesCache = nativeCache(cacheManager, "bookMisses");
+        this.bookWriter = objectMapper.writerFor(BookResponseDto.class);
+    }
+
+    @Override
+    public BookResponseDto findBookById(Long id) {
+        if (bookMissesCache.getIfPresent(id) != null && !isCached(id)) {
+            return null;
+        }
+        // A loader returning null stores nothing, so misses never take up room in the "books" cache.
+        BookResponseDto book = (BookResponseDto) booksCache.get(id, key -> bookRepository.findProjectedById(id).orElse(null));
+        if (book == null) {
+            rememberMiss(id);
+        }
+        return book;
+    }
+
+    @Override
+    public List<BookResponseDto> findBooksByIds(Collection<Long> ids) {
+        Set<Long> lookups = new LinkedHashSet<>(ids);
+        bookMissesCache.getAllPresent(ids).keySet().stream()
+                .filter(id -> !isCached(id))
+                .forEach(lookups::remove);
+        Map<Object, Object> books = booksCache.getAll(lookups, this::loadBooks);
+        lookups.stream()
+                .filter(id -> !books.containsKey(id))
+                .forEach(this::rememberMiss);
+        return lookups.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(BookResponseDto.class::cast)
+                .toList();
+    }
+
+    @Override
+    public SerializedString findBookJson(Long id) {
+        return (SerializedString) bookJsonCache.get(id, key -> {
+            // Reads through the "books" cache, and remembers a miss, exactly like a single book lookup.
+            BookResponseDto book = findBookById(id);
+            return (book == null) ? null : toJson(book);
+        });
+    }
+
+    @Caching(put = @CachePut(value = "books", key = "#book.id()"),
+            evict = {@CacheEvict(value = "bookJson", key = "#book.id()"), @CacheEvict(value = "bookMisses", key = "#book.id()")})
+    @Override
+    public BookResponseDto putBook(BookResponseDto book) {
+        return book;
+    }
+
+    @Override
+    public List<BookResponseDto> putBooks(Supplier<List<BookResponseDto>> reader) {
+        long evictionsBeforeRead = bookEvictions.get();
+        List<BookResponseDto> books = reader.get();
+        List<Long> cachedIds = new ArrayList<>(books.size());
+        for (BookResponseDto book : books) {
+            // Evictions are counted before the book is invalidated, and an invalidation waits for a compute of the
+            // same key. So either the eviction is seen here, or it removes the book after it was cached.
+            booksCache.asMap().computeIfAbsent(book.id(), id -> {
+                if (bookEvictions.get() != evictionsBeforeRead) {
+                    return null;
+                }
+                cachedIds.add(book.id());
+                return book;
+            });
+        }
+        bookMissesCache.invalidateAll(cachedIds);
+        return books;
+    }
+
+    @Override
+    public List<Long> findRecentlyReadBookIds(int limit) {
+        return booksCache.policy().expireAfterAccess()
+                .map(expiration -> expiration.youngest(limit).keySet().stream().map(Long.class::cast).toList())
+                .orElse(List.of());
+    }
+
+    @Caching(evict = {@CacheEvict(value = "books", key = "#id"), @CacheEvict(value = "bookJson", key = "#id")})
+    @Override
+    public void cacheEvictBook(Long id) {
+        // Runs before the annotations evict the book.
+        bookEvictions.incrementAndGet();
     }
 
-    @Cacheable(value = "books", key = "#id", sync = true)
     @Override
-    public BookEntity findBookById(Long id) {
-        return bookRepository.findById(id).orElse(null);
+    public void cacheEvictBooks(Collection<Long> ids) {
+        bookEvictions.incrementAndGet();
+        booksCache.invalidateAll(ids);
+        bookJsonCache.invalidateAll(ids);
     }
 
-    @CachePut(value = "books", key = "#bookEntity.getId()")
     @Override
-    public BookEntity putBook(BookEntity bookEntity) {
-        return bookEntity;
+    public void cacheEvictMisses(Collection<Long> ids) {
+        bookMissesCache.invalidateAll(ids);
     }
 
-    @CacheEvict(value = "books", key = "#id")
+    @Cacheable(value = "bookPages", key = "#pageable", sync = true)
     @Override
-    public void cacheEvictBook(Long id) {}
+    public PageDto findPage(Pageable pageable) {
+        return PageableMapper.pageableToPageDto(bookRepository.findPageBy(pageable));
+    }
+
+    @Cacheable(value = "bookPages", key = "{'slice', #pageable}", sync = true)
+    @Override
+    public Slice<BookResponseDto> findSlice(Pageable pageable) {
+        return bookRepository.findSliceBy(pageable);
+    }
+
+    @Cacheable(value = "bookPages", key = "{#filter, #pageable}", sync = true)
+    @Override
+    public PageDto findFilteredPage(BookFilterDto filter, Pageable pageable) {
+        // Specification queries return entities, which are mapped to projections before they are cached.
+        return PageableMapper.pageableToPageDto(
+                bookRepository.findAll(BookSpecifications.matching(filter), pageable).map(BookEntity::toResponseDto));
+    }
+
+    @Cacheable(value = "bookCount", key = "'all'", sync = true)
+    @Override
+    public long countBooks() {
+        return bookRepository.count();
+    }
+
+    @CacheEvict(value = "bookPages", allEntries = true)
+    @Override
+    public void cacheEvictPages() {}
+
+    private SerializedString toJson(BookResponseDto book) {
+        try {
+            SerializedString json = new SerializedString(bookWriter.writeValueAsString(book));
+            // Encodes and keeps the UTF-8 bytes now, so every response writes them without encoding again.
+            json.asUnquotedUTF8();
+            return json;
+        } catch (JsonProcessingException e) {
+            // A record of strings, numbers and booleans always serializes.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean isCached(Object id) {
+        // Reads the map view, which records no cache statistics.
+        return booksCache.asMap().containsKey(id);
+    }
+
+    private void rememberMiss(Object id) {
+        // A book cached by a concurrent save after this lookup missed wins, and must not be hidden by a stale miss.
+        if (!isCached(id)) {
+            bookMissesCache.put(id, Boolean.TRUE);
+        }
+    }
+
+    private static Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+        return ((CaffeineCache) Objects.requireNonNull(cacheManager.getCache(name))).getNativeCache();
+    }
+
+    private Map<Object, Object> loadBooks(Set<?> ids) {
+        Map<Object, Object> books = new HashMap<>();
+        bookRepository.findProjectedByIdIn(ids.stream().map(Long.class::cast).toList())
+                .forEach(book -> books.put(book.id(), book));
+        return books;
+    }
 }
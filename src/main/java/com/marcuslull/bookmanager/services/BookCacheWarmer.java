@@ -0,0 +1,115 @@
+package com.marcuslull.bookmanager.services;
+
+import com.marcuslull.bookmanager.configurations.BookCacheProperties;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.repositories.BookRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service that fills the "books" cache in bulk, so the first requests after a deploy are not all cache misses.
+ *
+ * <p>The warm-up runs once the application has started and before it reports ready, according to
+ * {@code bookmanager.cache.warm-up.mode}:</p>
+ * <ul>
+ *   <li>{@code recent}: the IDs of the most recently read books are saved to {@code recent-file} on shutdown, and
+ *   reloaded on startup with one query per batch of {@value #WARM_UP_BATCH_SIZE}.</li>
+ *   <li>{@code all}: the whole catalogue is read in keyset pages of {@value #WARM_UP_BATCH_SIZE} and cached on startup.
+ *   Books saved by a bulk import later on are cached by {@link BookService#importBatch(java.util.List)} as each
+ *   batch commits.</li>
+ * </ul>
+ *
+ * <p>Books read while others are deleted are cached through {@link BookCacheService#putBooks(java.util.function.Supplier)},
+ * which never brings a deleted book back into the cache.</p>
+ *
+ * <p>A file of recent IDs that cannot be read or written is logged and skipped, as the cache fills on demand
+ * either way.</p>
+ */
+@Slf4j
+@Service
+public class BookCacheWarmer {
+    private static final int WARM_UP_BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final BookCacheService bookCacheService;
+    private final BookCacheProperties.WarmUp properties;
+
+    public BookCacheWarmer(BookRepository bookRepository, BookCacheService bookCacheService, BookCacheProperties bookCacheProperties) {
+        this.bookRepository = bookRepository;
+        this.bookCacheService = bookCacheService;
+        this.properties = bookCacheProperties.warmUp();
+    }
+
+    /**
+     * Fills the cache according to the configured mode.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUp() {
+        switch (properties.mode()) {
+            case RECENT -> loadRecentBooks();
+            case ALL -> loadAllBooks();
+            case NONE -> {}
+        }
+    }
+
+    /**
+     * Saves the IDs of the most recently read books for the next startup, when the mode is {@code recent}.
+     */
+    @PreDestroy
+    public void saveRecentBooks() {
+        if (properties.mode() != BookCacheProperties.WarmUp.Mode.RECENT) {
+            return;
+        }
+        List<String> ids = bookCacheService.findRecentlyReadBookIds(properties.recentSize()).stream()
+                .map(String::valueOf)
+                .toList();
+        try {
+            Files.write(properties.recentFile(), ids);
+        } catch (IOException e) {
+            log.warn("Could not save recently read book ids to {}", properties.recentFile(), e);
+        }
+    }
+
+    private void loadRecentBooks() {
+        Path recentFile = properties.recentFile();
+        if (!Files.exists(recentFile)) {
+            return;
+        }
+        List<Long> ids;
+        try (Stream<String> lines = Files.lines(recentFile)) {
+            ids = lines.filter(line -> !line.isBlank()).map(String::strip).map(Long::valueOf)
+                    .limit(properties.recentSize()).toList();
+        } catch (IOException | UncheckedIOException | NumberFormatException e) {
+            log.warn("Could not read recently read book ids from {}, skipping cache warm-up", recentFile, e);
+            return;
+        }
+        int cached = 0;
+        for (int from = 0; from < ids.size(); from += WARM_UP_BATCH_SIZE) {
+            cached += bookCacheService.findBooksByIds(ids.subList(from, Math.min(from + WARM_UP_BATCH_SIZE, ids.size()))).size();
+        }
+        log.info("Warmed up the books cache with {} recently read books", cached);
+    }
+
+    private void loadAllBooks() {
+        Limit limit = Limit.of(WARM_UP_BATCH_SIZE);
+        List<BookResponseDto> page = bookCacheService.putBooks(() -> bookRepository.findFirstByKeyset(limit));
+        int cached = page.size();
+        while (page.size() == WARM_UP_BATCH_SIZE) {
+            BookResponseDto last = page.getLast();
+            page = bookCacheService.putBooks(() -> bookRepository.findAfterKeyset(last.title(), last.id(), limit));
+            cached += page.size();
+        }
+        log.info("Warmed up the books cache with all {} books", cached);
+    }
+}
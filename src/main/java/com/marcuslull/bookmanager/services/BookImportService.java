@@ -0,0 +1,113 @@
+package com.marcuslull.bookmanager.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.ImportSummaryDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service for streaming bulk imports of books.
+ *
+ * <p>The request body is parsed incrementally, one {@link BookDto} at a time, either as newline-delimited JSON
+ * or as a single JSON array. Each book is validated as it is read, a JSON {@code null} in place of a book counting as
+ * invalid, and valid books are handed to
+ * {@link BookService#importBatch(List)} in fixed-size batches, so memory use does not depend on the size of the upload.</p>
+ *
+ * <p>Each batch is committed on its own. If the body turns out to be malformed part way through, the batches
+ * already committed are kept and the parse error is propagated to the caller.</p>
+ */
+@Service
+public class BookImportService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final BookService bookService;
+    private final ObjectReader bookReader;
+    private final Validator validator;
+    private final int importBatchSize;
+
+    public BookImportService(BookService bookService, ObjectMapper objectMapper, Validator validator,
+                             @Value("${bookmanager.import.batch-size}") int importBatchSize) {
+        this.bookService = bookService;
+        this.bookReader = objectMapper.readerFor(BookDto.class);
+        this.validator = validator;
+        this.importBatchSize = importBatchSize;
+    }
+
+    /**
+     * Reads, validates and saves books from the given stream.
+     *
+     * @param inputStream <p>The request body containing books as newline-delimited JSON or a JSON array.</p>
+     *
+     * @return <p>An {@link ImportSummaryDto} with the aggregate counts for the import.</p>
+     *
+     * @throws IOException if the body cannot be read or is not valid JSON
+     */
+    public ImportSummaryDto importBooks(InputStream inputStream) throws IOException {
+        long received = 0;
+        long imported = 0;
+        long invalid = 0;
+        int batches = 0;
+        List<String> errorMessages = new ArrayList<>();
+        List<BookDto> batch = new ArrayList<>(importBatchSize);
+
+        try (JsonParser parser = bookReader.createParser(inputStream)) {
+            // A body starting with '[' is a single array of books, anything else a sequence of root-level books.
+            // Values are read one by one rather than through a MappingIterator, which rejects a null value outright.
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            for (; token != null && !(array && token == JsonToken.END_ARRAY); token = parser.nextToken()) {
+                BookDto bookDto = (token == JsonToken.VALUE_NULL) ? null : bookReader.readValue(parser);
+                received++;
+                if (bookDto == null) {
+                    invalid++;
+                    recordError(errorMessages, "book " + received + ": must not be null");
+                    continue;
+                }
+                Set<ConstraintViolation<BookDto>> violations = validator.validate(bookDto);
+                if (!violations.isEmpty()) {
+                    invalid++;
+                    recordErrors(errorMessages, received, violations);
+                    continue;
+                }
+                batch.add(bookDto);
+                if (batch.size() == importBatchSize) {
+                    imported += bookService.importBatch(batch);
+                    batches++;
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            imported += bookService.importBatch(batch);
+            batches++;
+        }
+        return new ImportSummaryDto(received, imported, received - invalid - imported, invalid, batches, errorMessages);
+    }
+
+    private void recordErrors(List<String> errorMessages, long bookNumber, Set<ConstraintViolation<BookDto>> violations) {
+        for (ConstraintViolation<BookDto> violation : violations) {
+            recordError(errorMessages, "book " + bookNumber + ": " + violation.getPropertyPath() + " " + violation.getMessage());
+        }
+    }
+
+    private void recordError(List<String> errorMessages, String errorMessage) {
+        if (errorMessages.size() < MAX_REPORTED_ERRORS) {
+            errorMessages.add(errorMessage);
+        }
+    }
+}
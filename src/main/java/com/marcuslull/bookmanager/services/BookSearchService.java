@@ -0,0 +1,218 @@
+package com.marcuslull.bookmanager.services;
+
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.SearchResultDto;
+import com.marcuslull.bookmanager.repositories.BookRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Service for full-text and faceted search over books, answered from an in-memory inverted index.
+ *
+ * <p>Titles and authors are split into lower-cased tokens, and each token maps to the IDs of the books containing
+ * it. A query matches the books that contain, for every query token, an indexed token starting with it, so
+ * {@code "hobb tolk"} finds "The Hobbit" by "J.R.R. Tolkien". The index is loaded from the database in keyset pages
+ * once every bean has been created, before the web server accepts requests, so no search sees a partial index and
+ * no delete can race with the load. From then on {@link BookService} keeps it in sync as books are saved and
+ * deleted.</p>
+ *
+ * <p>The index holds every book in memory. Searches share a read lock and updates take the write lock, so a search
+ * never sees a book half indexed.</p>
+ */
+@Service
+public class BookSearchService implements SmartInitializingSingleton {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<BookResponseDto> TITLE_ORDER =
+            Comparator.comparing(BookResponseDto::title).thenComparing(BookResponseDto::id);
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int MAX_AUTHOR_FACETS = 20;
+
+    private final BookRepository bookRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, BookResponseDto> books = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+
+    public BookSearchService(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        loadIndex();
+    }
+
+    /**
+     * Loads every book into the index, in pages ordered by title and id.
+     */
+    public void loadIndex() {
+        Limit limit = Limit.of(LOAD_PAGE_SIZE);
+        List<BookResponseDto> page = bookRepository.findFirstByKeyset(limit);
+        while (!page.isEmpty()) {
+            index(page);
+            BookResponseDto last = page.getLast();
+            page = (page.size() < LOAD_PAGE_SIZE) ? List.of() : bookRepository.findAfterKeyset(last.title(), last.id(), limit);
+        }
+    }
+
+    /**
+     * Adds books to the index, replacing any book already indexed under the same ID.
+     *
+     * @param newBooks the books to index
+     */
+    public void index(Collection<BookResponseDto> newBooks) {
+        lock.writeLock().lock();
+        try {
+            for (BookResponseDto book : newBooks) {
+                unindex(book.id());
+                books.put(book.id(), book);
+                for (String token : tokens(book)) {
+                    postings.computeIfAbsent(token, key -> new HashSet<>()).add(book.id());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes books from the index. IDs that are not indexed are ignored.
+     *
+     * @param ids the IDs of the books to remove
+     */
+    public void remove(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::unindex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the indexed books.
+     *
+     * @param query    free text matched against title and author tokens, by prefix. A query without any token, such as
+     *                 null or blank, matches no book rather than the whole index
+     * @param author   when not null, only books by this author, ignoring case
+     * @param finished when not null, only books whose finished flag has this value
+     * @param size     the maximum number of books returned
+     * @return a {@link SearchResultDto} with the first matching books in title order, the total number of matches and
+     *         the facet counts
+     */
+    public SearchResultDto search(String query, String author, Boolean finished, int size) {
+        Set<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return new SearchResultDto(0, 0, List.of(), Map.of(), Map.of());
+        }
+        // Holds the first matches in title order, its head being the last of them, so only these are ever sorted.
+        PriorityQueue<BookResponseDto> firstMatches = new PriorityQueue<>(size + 1, TITLE_ORDER.reversed());
+        long matches = 0;
+        Map<String, Long> authorCounts = new HashMap<>();
+        Map<Boolean, Long> finishedCounts = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : candidates(queryTokens)) {
+                BookResponseDto book = books.get(id);
+                boolean authorMatches = author == null || book.author().equalsIgnoreCase(author.strip());
+                boolean finishedMatches = finished == null || finished.equals(book.finished());
+                // Each facet ignores its own filter, so it shows the alternatives to the current selection.
+                if (finishedMatches) {
+                    authorCounts.merge(book.author(), 1L, Long::sum);
+                }
+                if (authorMatches && book.finished() != null) {
+                    finishedCounts.merge(book.finished(), 1L, Long::sum);
+                }
+                if (authorMatches && finishedMatches) {
+                    matches++;
+                    firstMatches.add(book);
+                    if (firstMatches.size() > size) {
+                        firstMatches.poll();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<BookResponseDto> content = firstMatches.stream().sorted(TITLE_ORDER).toList();
+        return new SearchResultDto(matches, content.size(), content, topAuthors(authorCounts), finishedCounts);
+    }
+
+    private Collection<Long> candidates(Set<String> queryTokens) {
+        Set<Long> result = null;
+        for (String queryToken : queryTokens) {
+            Set<Long> tokenMatches = new HashSet<>();
+            // Every indexed token starting with the query token sorts between it and the same prefix followed by
+            // the highest character.
+            postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, true).values().forEach(tokenMatches::addAll);
+            if (result == null) {
+                result = tokenMatches;
+            } else {
+                result.retainAll(tokenMatches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private void unindex(Long id) {
+        BookResponseDto book = books.remove(id);
+        if (book == null) {
+            return;
+        }
+        for (String token : tokens(book)) {
+            Set<Long> ids = postings.get(token);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private static Map<String, Long> topAuthors(Map<String, Long> authorCounts) {
+        Map<String, Long> topAuthors = new LinkedHashMap<>();
+        authorCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.<String, Long>comparingByKey()))
+                .limit(MAX_AUTHOR_FACETS)
+                .forEach(entry -> topAuthors.put(entry.getKey(), entry.getValue()));
+        return topAuthors;
+    }
+
+    private static Set<String> tokens(BookResponseDto book) {
+        Set<String> tokens = tokenize(book.title());
+        tokens.addAll(tokenize(book.author()));
+        return tokens;
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
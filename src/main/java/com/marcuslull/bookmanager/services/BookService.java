@@ -1,42 +1,97 @@
 package com.marcuslull.bookmanager.services;
 
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.marcuslull.bookmanager.configurations.BookCacheProperties;
 import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.BookFilterDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.CursorPageDto;
 import com.marcuslull.bookmanager.dtos.PageDto;
+import com.marcuslull.bookmanager.dtos.SearchResultDto;
+import com.marcuslull.bookmanager.dtos.SliceDto;
 import com.marcuslull.bookmanager.entities.BookEntity;
 import com.marcuslull.bookmanager.exceptions.DefensiveNullException;
 import com.marcuslull.bookmanager.exceptions.DuplicateEntityException;
+import com.marcuslull.bookmanager.mappers.CursorMapper;
 import com.marcuslull.bookmanager.mappers.PageableMapper;
 import com.marcuslull.bookmanager.repositories.BookRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class for managing books, performing CRUD operations, and handling caching.
  *
  * <p>The BookService class is responsible for interacting with the {@link BookRepository} for database operations
  * and the {@link BookCacheService} for caching operations. The service provides methods to find, save, and delete
- * book entities while ensuring data integrity and optimization through deduplication and caching mechanisms.</p>
+ * book entities while ensuring data integrity and optimization through deduplication and caching mechanisms.
+ * Saved and deleted books are also added to and removed from the search index of the {@link BookSearchService}.
+ * Caches and the search index are only updated once the transaction has committed, so a listing running at the same
+ * time cannot cache a page read before the change after it was discarded, and a search never sees a book that is not
+ * committed or was rolled back.</p>
  *
  * <p><b>Methods:</b></p>
  * <ul>
  *   <li>{@link #findById(Long)}: Finds a book entity by its unique identifier.</li>
+ *   <li>{@link #toResponseData(BookResponseDto)}: Returns the data to respond with for a book.</li>
+ *   <li>{@link #findAllById(List<Long>)}: Finds many book entities by their unique identifiers in one call.</li>
  *   <li>{@link #findAllPaged(Pageable)}: Retrieves a paginated list of book entities.</li>
+ *   <li>{@link #findAllSliced(Pageable)}: Retrieves a slice of book entities without counting them.</li>
+ *   <li>{@link #findAllFiltered(BookFilterDto, Pageable)}: Retrieves a paginated list of the book entities matching a filter.</li>
+ *   <li>{@link #findAllAfter(String, int)}: Retrieves a cursor paginated list of book entities.</li>
+ *   <li>{@link #search(String, String, Boolean, int)}: Searches book entities by title and author, with facet counts.</li>
  *   <li>{@link #saveAll(List<BookDto>)}: Saves multiple book entities and ensures deduplication before persisting.</li>
+ *   <li>{@link #importBatch(List<BookDto>)}: Saves one batch of a bulk import, skipping duplicates.</li>
+ *   <li>{@link #writeBatch(List<BookDto>)}: Saves one batch of queued books, skipping duplicates, and returns the saved books.</li>
  *   <li>{@link #deleteById(Long)}: Deletes a book entity by its unique identifier.</li>
+ *   <li>{@link #deleteAllById(List<Long>)}: Deletes many book entities by their unique identifiers.</li>
+ *   <li>{@link #deleteAllByAuthor(String, Boolean)}: Deletes the book entities of an author.</li>
  * </ul>
  */
 @Service
 public class BookService {
+    private static final int DEDUPE_QUERY_CHUNK_SIZE = 500;
+    private static final int DELETE_CHUNK_SIZE = 500;
+    private static final String DUPLICATES_METER_NAME = "book.duplicates";
+
     private final BookRepository bookRepository;
     private final BookCacheService bookCacheService;
+    private final BookSearchService bookSearchService;
+    private final EntityManager entityManager;
+    private final int batchSize;
+    private final boolean serializedLookups;
+    private final boolean cacheImports;
+    private final Counter requestDuplicates;
+    private final Counter existingDuplicates;
 
-    public BookService(BookRepository bookRepository, BookCacheService bookCacheService) {
+    public BookService(BookRepository bookRepository, BookCacheService bookCacheService,
+                       BookSearchService bookSearchService, EntityManager entityManager,
+                       @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}") int batchSize,
+                       BookCacheProperties bookCacheProperties, MeterRegistry meterRegistry) {
         this.bookRepository = bookRepository;
         this.bookCacheService = bookCacheService;
+        this.bookSearchService = bookSearchService;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+        this.serializedLookups = bookCacheProperties.books().serialized();
+        // When the whole catalogue is warmed up, imported books are cached too so the cache keeps holding all of it.
+        this.cacheImports = bookCacheProperties.warmUp().mode() == BookCacheProperties.WarmUp.Mode.ALL;
+        this.requestDuplicates = duplicatesCounter(meterRegistry, "request");
+        this.existingDuplicates = duplicatesCounter(meterRegistry, "database");
     }
 
     /**
@@ -48,20 +103,56 @@ public class BookService {
      * @param id <p>The unique identifier of the book entity to be retrieved.
      *           This identifier must be non-null and of type {@link Long}.</p>
      *
-     * @return <p>The {@link BookEntity} corresponding to the provided identifier, or
+     * @return <p>The {@link BookResponseDto} corresponding to the provided identifier, or
      *         <code>null</code> if no such entity exists in the cache or database.</p>
      */
-    public BookEntity findById(Long id) {
+    public BookResponseDto findById(Long id) {
         defensiveNullCheck(List.of(id));
         return bookCacheService.findBookById(id);
     }
 
+    /**
+     * Returns the data of a single book response for a book found by {@link #findById(Long)}.
+     *
+     * <p>When {@code bookmanager.cache.books.serialized} is enabled, the data is the cached JSON of the book, which
+     * Jackson writes into the response envelope without serializing the book again. Otherwise it is the book itself.</p>
+     *
+     * @param book <p>The book to respond with. Must not be null.</p>
+     *
+     * @return <p>A {@link RawValue} holding the JSON of the book, or the given {@link BookResponseDto} if serialized
+     *         lookups are disabled or the book was deleted in the meantime.</p>
+     */
+    public Object toResponseData(BookResponseDto book) {
+        defensiveNullCheck(List.of(book));
+        if (!serializedLookups) {
+            return book;
+        }
+        SerializedString json = bookCacheService.findBookJson(book.id());
+        return (json == null) ? book : new RawValue(json);
+    }
+
+    /**
+     * Finds and retrieves many book entities from the cache or database by their unique identifiers.
+     *
+     * <p>Repeated identifiers are looked up once. The {@code bookCacheService} serves cached books from memory and
+     * loads the rest with a single query, so the cost does not grow with one round trip per book.</p>
+     *
+     * @param ids <p>The unique identifiers of the book entities to be retrieved. Must not be null.</p>
+     *
+     * @return <p>The {@link BookResponseDto} objects found, in the order their identifiers were first given.
+     *         Identifiers without a book are omitted.</p>
+     */
+    public List<BookResponseDto> findAllById(List<Long> ids) {
+        defensiveNullCheck(List.of(ids));
+        return bookCacheService.findBooksByIds(new LinkedHashSet<>(ids));
+    }
+
     /**
      * Retrieves a paginated list of all books.
      * <p>
      * This method performs a defensive null check on the provided {@code pageable} parameter
-     * to ensure that it is not null. It then retrieves a page of book entities from the
-     * {@code bookRepository} and maps it to a {@code PageDto} object.
+     * to ensure that it is not null. It then retrieves the page from the {@code bookCacheService},
+     * which loads it from the {@code bookRepository} and maps it to a {@code PageDto} object on a cache miss.
      * </p>
      *
      * @param pageable
@@ -73,9 +164,98 @@ public class BookService {
      */
     public PageDto findAllPaged(Pageable pageable){
         defensiveNullCheck(List.of(pageable));
-        int pageNumber = pageable.getPageNumber();
-        Page<BookEntity> pageOfBookEntities =  bookRepository.findAll(pageable.withPage(pageNumber));
-        return PageableMapper.pageableToPageDto(pageOfBookEntities);
+        return bookCacheService.findPage(pageable);
+    }
+
+    /**
+     * Retrieves a slice of all books, without counting them.
+     * <p>
+     * The slice comes from the {@code bookCacheService}, which on a cache miss fetches one extra row to determine
+     * whether a next page exists instead of running a count query. The approximate total is taken from the
+     * periodically refreshed cached count.
+     * </p>
+     *
+     * @param pageable
+     * <p>The pagination information, including page number, size, and sorting criteria.</p>
+     *
+     * @return
+     * <p>A {@link SliceDto} object representing a slice of book entities and the approximate total.</p>
+     */
+    public SliceDto findAllSliced(Pageable pageable) {
+        defensiveNullCheck(List.of(pageable));
+        return PageableMapper.sliceToSliceDto(bookCacheService.findSlice(pageable), bookCacheService.countBooks());
+    }
+
+    /**
+     * Retrieves a paginated list of the books matching a filter.
+     * <p>
+     * The page comes from the {@code bookCacheService}, which on a cache miss runs a query with only the set filters
+     * as predicates, so it can be answered from the (author, bookNumber) or finished index. Sorting by
+     * {@code bookNumber} while filtering by author reads the books of the author in index order.
+     * </p>
+     *
+     * @param filter
+     * <p>The filters to apply. Filters that are null are not applied.</p>
+     *
+     * @param pageable
+     * <p>The pagination information, including page number, size, and sorting criteria.</p>
+     *
+     * @return
+     * <p>A {@link PageDto} object representing a page of the matching book entities.</p>
+     */
+    public PageDto findAllFiltered(BookFilterDto filter, Pageable pageable) {
+        defensiveNullCheck(List.of(filter, pageable));
+        return bookCacheService.findFilteredPage(filter, pageable);
+    }
+
+    /**
+     * Retrieves a page of books ordered by title and id, starting after the position encoded in a cursor.
+     * <p>
+     * This is keyset pagination: instead of skipping {@code page * size} rows, the query seeks directly to the
+     * position in the (title, id) index, and no count query is run. Fetching any page therefore costs the same,
+     * however deep into the listing it is. One extra row is fetched to determine whether a next page exists.
+     * </p>
+     *
+     * @param after
+     * <p>The cursor returned as {@code nextCursor} with the previous page, or null for the first page.</p>
+     *
+     * @param size
+     * <p>The maximum number of books on the page.</p>
+     *
+     * @return
+     * <p>A {@link CursorPageDto} containing the books and the cursor for the next page.</p>
+     */
+    public CursorPageDto findAllAfter(String after, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<BookResponseDto> books;
+        if (after == null || after.isBlank()) {
+            books = bookRepository.findFirstByKeyset(limit);
+        } else {
+            CursorMapper.Cursor cursor = CursorMapper.fromCursor(after);
+            books = bookRepository.findAfterKeyset(cursor.title(), cursor.id(), limit);
+        }
+        boolean hasNext = books.size() > size;
+        List<BookResponseDto> content = hasNext ? books.subList(0, size) : books;
+        return new CursorPageDto(content.size(), hasNext, hasNext ? CursorMapper.toCursor(content.getLast()) : null, content);
+    }
+
+    /**
+     * Searches books by title and author.
+     * <p>
+     * The search is answered from the in-memory index of the {@code bookSearchService} and never queries the
+     * database. Query tokens match title and author tokens by prefix, and every token must match.
+     * </p>
+     *
+     * @param query    <p>The free text to search for. Null or blank matches every book.</p>
+     * @param author   <p>When not null, only books by this author, ignoring case.</p>
+     * @param finished <p>When not null, only books whose finished flag has this value.</p>
+     * @param size     <p>The maximum number of books returned.</p>
+     *
+     * @return <p>A {@link SearchResultDto} with the first matching books ordered by title, the total number of
+     *         matches, and the number of matches per author and per finished flag.</p>
+     */
+    public SearchResultDto search(String query, String author, Boolean finished, int size) {
+        return bookSearchService.search(query, author, finished, size);
     }
 
     /**
@@ -86,24 +266,86 @@ public class BookService {
      *   <li>Checks for null values in the provided list.</li>
      *   <li>Converts each {@link BookDto} to a {@link BookEntity}.</li>
      *   <li>Deduplicates the list of {@link BookEntity} objects.</li>
-     *   <li>Saves the deduplicated list to the repository.</li>
-     *   <li>Caches the saved entities.</li>
+     *   <li>Saves the deduplicated list to the repository in chunks of the JDBC batch size, flushing and clearing
+     *   the persistence context after each chunk so memory stays bounded for large imports.</li>
+     *   <li>Once the transaction has committed, caches the saved books as {@link BookResponseDto} projections,
+     *   evicts all cached pages and adds the saved books to the search index.</li>
      * </ul>
      *
      * @param bookDtos <p>A list of {@link BookDto} objects to be saved. These objects represent the data transfer
      * objects for books and must not be null.</p>
      *
-     * @return <p>An {@link Iterable} of {@link BookEntity} objects that were saved to the database, representing the saved
-     * entities.</p>
+     * @return <p>A {@link List} of {@link BookResponseDto} objects representing the books that were saved to the
+     * database.</p>
      */
     @Transactional
-    public Iterable<BookEntity> saveAll(List<BookDto> bookDtos) {
+    public List<BookResponseDto> saveAll(List<BookDto> bookDtos) {
         defensiveNullCheck(List.of(bookDtos));
         List<BookEntity> bookEntities = bookDtos.stream().map(BookEntity::fromDto).toList();
         bookEntities = bookDeduplication(bookEntities);
-        Iterable<BookEntity> result = bookRepository.saveAll(bookEntities);
-        cachePut(result);
-        return result;
+        if (bookEntities.isEmpty()) {
+            throw new DuplicateEntityException("Book(s) already exist");
+        }
+        persistInBatches(bookEntities);
+        List<BookResponseDto> savedBooks = bookEntities.stream().map(BookEntity::toResponseDto).toList();
+        afterCommit(() -> {
+            cachePut(savedBooks);
+            bookCacheService.cacheEvictPages();
+            bookSearchService.index(savedBooks);
+        });
+        return savedBooks;
+    }
+
+    /**
+     * Saves one batch of a bulk import.
+     *
+     * <p>Unlike {@link #saveAll(List)}, duplicates are skipped rather than rejected and the saved entities are
+     * not cached, so a large import neither fails part way through nor floods the book cache. They are added to the
+     * search index once the transaction has committed. Each call runs in its own transaction.</p>
+     *
+     * <p>When the cache warm-up mode is {@code all}, the saved entities are cached as well once the transaction has
+     * committed, so the cache keeps holding the whole catalogue without reading it again.</p>
+     *
+     * @param bookDtos <p>A list of validated {@link BookDto} objects to be saved. Must not be null.</p>
+     *
+     * @return <p>The number of books that were saved. Books that already existed, or that were repeated
+     * within the batch, are not counted.</p>
+     */
+    @Transactional
+    public int importBatch(List<BookDto> bookDtos) {
+        List<BookResponseDto> savedBooks = writeBatch(bookDtos);
+        if (cacheImports && !savedBooks.isEmpty()) {
+            afterCommit(() -> bookCacheService.putBooks(() -> savedBooks));
+        }
+        return savedBooks.size();
+    }
+
+    /**
+     * Saves one batch of books queued by the {@link BookWriteBehindService}.
+     *
+     * <p>Books are saved as by {@link #importBatch(List)}: duplicates are skipped, the saved books are added to the
+     * search index but not cached, any remembered miss for their identifiers is forgotten, and the call runs in its
+     * own transaction.</p>
+     *
+     * @param bookDtos <p>A list of validated {@link BookDto} objects to be saved. Must not be null.</p>
+     *
+     * @return <p>The {@link BookResponseDto} objects of the books that were saved. Books that already existed, or
+     * that were repeated within the batch, are not included.</p>
+     */
+    @Transactional
+    public List<BookResponseDto> writeBatch(List<BookDto> bookDtos) {
+        defensiveNullCheck(List.of(bookDtos));
+        List<BookEntity> bookEntities = bookDeduplication(bookDtos.stream().map(BookEntity::fromDto).toList());
+        persistInBatches(bookEntities);
+        List<BookResponseDto> savedBooks = bookEntities.stream().map(BookEntity::toResponseDto).toList();
+        if (!savedBooks.isEmpty()) {
+            afterCommit(() -> {
+                bookCacheService.cacheEvictMisses(savedBooks.stream().map(BookResponseDto::id).toList());
+                bookCacheService.cacheEvictPages();
+                bookSearchService.index(savedBooks);
+            });
+        }
+        return savedBooks;
     }
 
     /**
@@ -112,8 +354,9 @@ public class BookService {
      * <p>This method performs the following operations:</p>
      * <ul>
      *   <li>Performs a defensive null check on the provided identifier.</li>
-     *   <li>Evicts the book entity from the cache.</li>
      *   <li>Deletes the book entity from the repository.</li>
+     *   <li>Once the transaction has committed, evicts the book entity and all cached pages from the cache and removes
+     *   the book from the search index.</li>
      * </ul>
      *
      * <p>It uses the {@code defensiveNullCheck} to ensure the identifier is not null.</p>
@@ -123,23 +366,119 @@ public class BookService {
     @Transactional
     public void deleteById(Long id) {
         defensiveNullCheck(List.of(id));
-        bookCacheService.cacheEvictBook(id);
         bookRepository.deleteById(id);
+        afterCommit(() -> {
+            bookCacheService.cacheEvictBook(id);
+            bookCacheService.cacheEvictPages();
+            bookSearchService.remove(List.of(id));
+        });
     }
 
-    private void cachePut(Iterable<BookEntity> bookEntities) {
-        for(BookEntity bookEntity : bookEntities) {
-            bookCacheService.putBook(bookEntity);
+    /**
+     * Deletes many book entities by their unique identifiers.
+     *
+     * <p>The books are removed with one set-based DELETE per chunk of identifiers, without loading them first. Once the
+     * transaction has committed, they are evicted from the cache in one bulk operation together with all cached pages,
+     * and removed from the search index.</p>
+     *
+     * @param ids <p>The unique identifiers of the book entities to be deleted. Must not be null. Identifiers without
+     *            a book are ignored.</p>
+     *
+     * @return <p>The number of books that were deleted.</p>
+     */
+    @Transactional
+    public int deleteAllById(List<Long> ids) {
+        defensiveNullCheck(List.of(ids));
+        return deleteInChunks(new ArrayList<>(new LinkedHashSet<>(ids)));
+    }
+
+    /**
+     * Deletes the book entities of an author.
+     *
+     * <p>The identifiers of the matching books are resolved with one query, so exactly the deleted books can be
+     * evicted from the cache, and the books are then removed as in {@link #deleteAllById(List)}.</p>
+     *
+     * @param author   <p>The author whose books are deleted. Must not be null.</p>
+     * @param finished <p>When not null, only the books whose finished flag has this value are deleted.</p>
+     *
+     * @return <p>The number of books that were deleted.</p>
+     */
+    @Transactional
+    public int deleteAllByAuthor(String author, Boolean finished) {
+        defensiveNullCheck(List.of(author));
+        return deleteInChunks(bookRepository.findIdsByAuthor(author, finished));
+    }
+
+    private int deleteInChunks(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Chunked like the dedupe query, so the bind parameter count of each DELETE stays bounded.
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            deleted += bookRepository.deleteAllByIdIn(ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size())));
+        }
+        afterCommit(() -> {
+            bookCacheService.cacheEvictBooks(ids);
+            bookCacheService.cacheEvictPages();
+            bookSearchService.remove(ids);
+        });
+        return deleted;
+    }
+
+    private void persistInBatches(List<BookEntity> bookEntities) {
+        for (int from = 0; from < bookEntities.size(); from += batchSize) {
+            bookRepository.saveAll(bookEntities.subList(from, Math.min(from + batchSize, bookEntities.size())));
+            // Flushing sends the chunk as one JDBC batch (and surfaces constraint violations before anything is
+            // cached), clearing detaches the chunk so the persistence context does not grow with the import.
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        // Outside a transaction there is nothing to wait for.
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void cachePut(Iterable<BookResponseDto> books) {
+        for(BookResponseDto book : books) {
+            bookCacheService.putBook(book);
         }
     }
 
     private List<BookEntity> bookDeduplication(List<BookEntity> bookEntities) {
-        List<BookEntity> deduplicatedList = bookEntities.stream().filter(book ->
-                !bookRepository.existsByDedupeId(book.getDedupeId())).toList();
-        if (deduplicatedList.isEmpty()) {
-            throw new DuplicateEntityException("Book(s) already exist");
+        // Duplicates within the request are dropped first, keeping the first occurrence of each dedupe ID.
+        Map<Long, BookEntity> uniqueBooks = new LinkedHashMap<>();
+        bookEntities.forEach(book -> uniqueBooks.putIfAbsent(book.getDedupeId(), book));
+        requestDuplicates.increment(bookEntities.size() - uniqueBooks.size());
+        int requestUniqueBooks = uniqueBooks.size();
+        // The remaining dedupe IDs are resolved against the database with one `IN (...)` query per chunk
+        // rather than one query per book. Chunking keeps the bind parameter count bounded for large batches.
+        List<Long> dedupeIds = new ArrayList<>(uniqueBooks.keySet());
+        for (int from = 0; from < dedupeIds.size(); from += DEDUPE_QUERY_CHUNK_SIZE) {
+            List<Long> chunk = dedupeIds.subList(from, Math.min(from + DEDUPE_QUERY_CHUNK_SIZE, dedupeIds.size()));
+            bookRepository.findExistingDedupeIds(chunk).forEach(uniqueBooks::remove);
         }
-        return deduplicatedList;
+        existingDuplicates.increment(requestUniqueBooks - uniqueBooks.size());
+        return new ArrayList<>(uniqueBooks.values());
+    }
+
+    private static Counter duplicatesCounter(MeterRegistry meterRegistry, String source) {
+        // Tagged by where the duplicate was found: repeated within one request, or already in the database.
+        return Counter.builder(DUPLICATES_METER_NAME)
+                .description("Books skipped or rejected as duplicates")
+                .tag("source", source)
+                .register(meterRegistry);
     }
 
     private void defensiveNullCheck(List<Object> objectsList) {
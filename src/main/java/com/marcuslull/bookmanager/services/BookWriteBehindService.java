@@ -0,0 +1,252 @@
+package com.marcuslull.bookmanager.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marcuslull.bookmanager.configurations.WriteBehindProperties;
+import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.ImportJobDto;
+import com.marcuslull.bookmanager.entities.BookEntity;
+import com.marcuslull.bookmanager.exceptions.BatchSizeExceededException;
+import com.marcuslull.bookmanager.exceptions.DuplicateEntityException;
+import com.marcuslull.bookmanager.exceptions.WriteQueueFullException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Service that saves posted books behind the response, when {@code bookmanager.write-behind.enabled} is set.
+ *
+ * <p>Request threads only deduplicate the books against each other and against the books still queued, using an
+ * in-memory set of their deduplication keys, and queue them under a new job. A single background thread drains the
+ * queue and saves up to {@code batch-size} books per transaction through {@link BookService#writeBatch(List)}, which
+ * skips books that already exist in the database. The outcome is recorded on the job. A job is kept until all of its
+ * books are written, so its status is never lost while books are still queued, and then for {@code job-retention}
+ * among at most {@code max-jobs} finished jobs. A batch that cannot be written, for instance because one of its books was saved through
+ * another endpoint in the meantime, is logged and written again one book per transaction, so only the books that
+ * still cannot be written are counted as failed.</p>
+ *
+ * <p>The queue holds at most {@code queue-capacity} books. A request whose books do not all fit is rejected with a
+ * {@link WriteQueueFullException}, never partially queued, and a request with more books than the queue can ever hold
+ * is rejected with a {@link BatchSizeExceededException}. The number of queued books is published as the
+ * {@code book.write.behind.queued} metric.</p>
+ */
+@Slf4j
+@Service
+public class BookWriteBehindService {
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final BookService bookService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final BlockingQueue<QueuedBook> queue = new LinkedBlockingQueue<>();
+    // Bounds the queue. Permits are taken for all books of a request at once and returned once they are written.
+    private final Semaphore capacity;
+    private final Set<Long> queuedDedupeIds = ConcurrentHashMap.newKeySet();
+    // Holds at most queue-capacity jobs, as each has at least one book queued.
+    private final Map<String, Job> unfinishedJobs = new ConcurrentHashMap<>();
+    private final Cache<String, Job> finishedJobs;
+    private volatile boolean running;
+    private Thread writer;
+
+    public BookWriteBehindService(BookService bookService, WriteBehindProperties properties, MeterRegistry meterRegistry) {
+        this.bookService = bookService;
+        this.enabled = properties.enabled();
+        this.batchSize = properties.batchSize();
+        this.queueCapacity = properties.queueCapacity();
+        this.capacity = new Semaphore(queueCapacity);
+        this.finishedJobs = Caffeine.newBuilder()
+                .maximumSize(properties.maxJobs())
+                .expireAfterWrite(properties.jobRetention())
+                .build();
+        Gauge.builder("book.write.behind.queued", queue, BlockingQueue::size)
+                .description("Books queued to be written by the write-behind writer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether posted books are queued by this service rather than saved before the response.
+     *
+     * @return true if {@code bookmanager.write-behind.enabled} is set
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues validated books to be written, under a new job.
+     *
+     * @param bookDtos the validated books to queue. Must not be null
+     * @return the {@link ImportJobDto} of the new job, with the books queued and the duplicates found so far
+     * @throws BatchSizeExceededException if the request has more unique books than the queue can hold
+     * @throws WriteQueueFullException     if the queue has no room for all books of the request
+     * @throws DuplicateEntityException    if every book is repeated or already queued
+     */
+    public ImportJobDto enqueue(List<BookDto> bookDtos) {
+        Map<Long, BookDto> uniqueBooks = new LinkedHashMap<>();
+        bookDtos.forEach(book -> uniqueBooks.putIfAbsent(BookEntity.dedupeKey(book.title(), book.author(), book.pages()), book));
+        if (uniqueBooks.size() > queueCapacity) {
+            throw new BatchSizeExceededException("At most " + queueCapacity + " books can be queued at once");
+        }
+        if (!capacity.tryAcquire(uniqueBooks.size())) {
+            throw new WriteQueueFullException("Too many books are waiting to be written, try again later");
+        }
+        Job job = new Job(UUID.randomUUID().toString(), bookDtos.size());
+        List<QueuedBook> queuedBooks = new ArrayList<>(uniqueBooks.size());
+        uniqueBooks.forEach((dedupeId, book) -> {
+            if (queuedDedupeIds.add(dedupeId)) {
+                queuedBooks.add(new QueuedBook(book, dedupeId, job));
+            }
+        });
+        capacity.release(uniqueBooks.size() - queuedBooks.size());
+        if (queuedBooks.isEmpty()) {
+            throw new DuplicateEntityException("Book(s) already exist");
+        }
+        job.queued = queuedBooks.size();
+        job.pending.set(queuedBooks.size());
+        job.duplicates.set(bookDtos.size() - queuedBooks.size());
+        unfinishedJobs.put(job.id, job);
+        queue.addAll(queuedBooks);
+        return job.toDto();
+    }
+
+    /**
+     * Returns the status of a job.
+     *
+     * @param jobId the identifier returned when the job was created
+     * @return the {@link ImportJobDto} of the job, or null if it is unknown or its status is no longer kept
+     */
+    public ImportJobDto findJob(String jobId) {
+        Job job = unfinishedJobs.get(jobId);
+        if (job == null) {
+            job = finishedJobs.getIfPresent(jobId);
+        }
+        return (job == null) ? null : job.toDto();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            running = true;
+            writer = Thread.ofPlatform().name("book-write-behind").daemon().start(this::drain);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer != null) {
+            // The writer finishes what is queued before it ends, rather than being interrupted mid-transaction.
+            running = false;
+            writer.join(SHUTDOWN_TIMEOUT);
+        }
+    }
+
+    /**
+     * Writes one batch of queued books, waiting briefly for books to arrive if none are queued.
+     *
+     * @return the number of books taken from the queue
+     */
+    int writeQueued() throws InterruptedException {
+        QueuedBook first = queue.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<QueuedBook> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        write(batch);
+        return batch.size();
+    }
+
+    private void drain() {
+        try {
+            while (running || !queue.isEmpty()) {
+                writeQueued();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<QueuedBook> batch) {
+        try {
+            Set<Long> savedDedupeIds = bookService.writeBatch(batch.stream().map(QueuedBook::book).toList()).stream()
+                    .map(book -> BookEntity.dedupeKey(book.title(), book.author(), book.pages()))
+                    .collect(Collectors.toSet());
+            batch.forEach(queuedBook -> complete(queuedBook, savedDedupeIds.contains(queuedBook.dedupeId())));
+        } catch (RuntimeException e) {
+            // One bad row, e.g. a book saved through another endpoint since the batch was deduplicated, must not fail
+            // the books of every job in the batch, so each book is written again on its own.
+            log.warn("Could not write a batch of {} queued books, writing them one by one", batch.size(), e);
+            batch.forEach(this::writeOne);
+        }
+        capacity.release(batch.size());
+    }
+
+    private void writeOne(QueuedBook queuedBook) {
+        try {
+            complete(queuedBook, !bookService.writeBatch(List.of(queuedBook.book())).isEmpty());
+        } catch (RuntimeException e) {
+            log.error("Could not write a queued book of job {}", queuedBook.job().id, e);
+            queuedBook.job().failed.incrementAndGet();
+            release(queuedBook);
+        }
+    }
+
+    private void complete(QueuedBook queuedBook, boolean saved) {
+        (saved ? queuedBook.job().imported : queuedBook.job().duplicates).incrementAndGet();
+        release(queuedBook);
+    }
+
+    private void release(QueuedBook queuedBook) {
+        Job job = queuedBook.job();
+        if (job.pending.decrementAndGet() == 0) {
+            // Added to the finished jobs first, so a concurrent lookup finds the job in one or the other.
+            finishedJobs.put(job.id, job);
+            unfinishedJobs.remove(job.id);
+        }
+        queuedDedupeIds.remove(queuedBook.dedupeId());
+    }
+
+    private record QueuedBook(BookDto book, long dedupeId, Job job) {
+    }
+
+    private static final class Job {
+        private final String id;
+        private final int received;
+        private int queued;
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicInteger imported = new AtomicInteger();
+        private final AtomicInteger duplicates = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+
+        private Job(String id, int received) {
+            this.id = id;
+            this.received = received;
+        }
+
+        private ImportJobDto toDto() {
+            ImportJobDto.Status status = (pending.get() > 0) ? ImportJobDto.Status.PENDING : ImportJobDto.Status.COMPLETED;
+            return new ImportJobDto(id, status, received, queued, imported.get(), duplicates.get(), failed.get());
+        }
+    }
+}
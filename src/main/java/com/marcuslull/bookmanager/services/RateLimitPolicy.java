@@ -0,0 +1,21 @@
+package com.marcuslull.bookmanager.services;
+
+/**
+ * The rate limit budgets applied to the book endpoints.
+ *
+ * <p>Each policy has its own token bucket per client, configured under {@code bookmanager.rate-limit.<policy>}, so that
+ * for example paging through the catalogue does not use up the budget for fetching single books.</p>
+ *
+ * <ul>
+ *   <li>{@link #LIST_BOOKS}: GET requests for lists of books.</li>
+ *   <li>{@link #GET_BOOK}: GET requests for a single book.</li>
+ *   <li>{@link #POST_BOOKS}: POST requests that create books, including bulk imports.</li>
+ *   <li>{@link #DELETE_BOOKS}: DELETE requests.</li>
+ * </ul>
+ */
+public enum RateLimitPolicy {
+    LIST_BOOKS,
+    GET_BOOK,
+    POST_BOOKS,
+    DELETE_BOOKS
+}
@@ -0,0 +1,27 @@
+package com.marcuslull.bookmanager.services;
+
+/**
+ * The outcome of consuming one request from a client's rate limit budget.
+ *
+ * <p><b>Fields:</b></p>
+ * <ul>
+ *   <li>{@code limited} &ndash; whether the request exceeded the budget and must be rejected</li>
+ *   <li>{@code limit} &ndash; the number of requests allowed per window</li>
+ *   <li>{@code remaining} &ndash; the number of requests still available right now</li>
+ *   <li>{@code resetSeconds} &ndash; seconds until the budget is fully replenished</li>
+ *   <li>{@code retryAfterSeconds} &ndash; seconds until the next request will be allowed, 0 if not limited</li>
+ * </ul>
+ *
+ * <p>The names of the response headers the budget is reported in are defined here as constants.</p>
+ */
+public record RateLimitResult(
+        boolean limited,
+        long limit,
+        long remaining,
+        long resetSeconds,
+        long retryAfterSeconds
+) {
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+}
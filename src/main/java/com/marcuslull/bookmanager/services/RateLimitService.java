@@ -12,17 +12,18 @@ import jakarta.servlet.http.HttpServletRequest;
 public interface RateLimitService {
 
     /**
-     * Checks if the given HTTP request exceeds the allowed rate limits.
+     * Consumes one request from the client's budget for the given policy.
      *
-     * <p>This method uses predefined rules and thresholds to determine whether
-     * the request should be rate-limited. If the request exceeds the defined
-     * rate limits, the method returns {@code true}; otherwise, it returns {@code false}.</p>
+     * <p>This method uses the configured budget of the {@link RateLimitPolicy} to determine whether
+     * the request should be rate-limited. If the request exceeds the budget, the returned
+     * {@link RateLimitResult} is marked as limited and nothing is consumed.</p>
      *
      * @param request the {@code HttpServletRequest} object representing the client's request.
      *                This parameter provides access to request information such as headers,
      *                parameters, and request URI.
+     * @param policy  the budget the request is counted against.
      *
-     * @return {@code true} if the request is rate-limited, {@code false} otherwise.
+     * @return a {@link RateLimitResult} describing whether the request is limited and the state of the budget.
      */
-    boolean isLimited(HttpServletRequest request);
+    RateLimitResult consume(HttpServletRequest request, RateLimitPolicy policy);
 }
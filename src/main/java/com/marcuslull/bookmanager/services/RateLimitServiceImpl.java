@@ -1,28 +1,53 @@
 package com.marcuslull.bookmanager.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marcuslull.bookmanager.configurations.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class RateLimitServiceImpl implements RateLimitService {
 
-    private static final Map<String, Instant> rateLimitMap = new ConcurrentHashMap<>();
-    private final int RATE_LIMIT_SECONDS = 5;
+    private static final String CACHE_NAME_PREFIX = "rateLimit.";
+    private static final String REJECTIONS_METER_NAME = "rate.limit.rejections";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<RateLimitPolicy, TokenBucket> buckets = new EnumMap<>(RateLimitPolicy.class);
+    private final Map<RateLimitPolicy, Counter> rejections = new EnumMap<>(RateLimitPolicy.class);
+
+    public RateLimitServiceImpl(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        buckets.put(RateLimitPolicy.LIST_BOOKS, new TokenBucket(properties.listBooks(), properties.maxClients()));
+        buckets.put(RateLimitPolicy.GET_BOOK, new TokenBucket(properties.getBook(), properties.maxClients()));
+        buckets.put(RateLimitPolicy.POST_BOOKS, new TokenBucket(properties.postBooks(), properties.maxClients()));
+        buckets.put(RateLimitPolicy.DELETE_BOOKS, new TokenBucket(properties.deleteBooks(), properties.maxClients()));
+        buckets.forEach((policy, bucket) -> CaffeineCacheMetrics.monitor(meterRegistry, bucket.clients,
+                CACHE_NAME_PREFIX + policy.name().toLowerCase(Locale.ROOT)));
+        for (RateLimitPolicy policy : RateLimitPolicy.values()) {
+            rejections.put(policy, Counter.builder(REJECTIONS_METER_NAME)
+                    .description("Requests rejected by rate limiting")
+                    .tag("policy", policy.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+    }
 
     @Override
-    public boolean isLimited(HttpServletRequest request) {
-        String ipAddressSequence = getIpAddressString(request);
-        Instant now = Instant.now();
-        // Usage of `.merge()` removes the compound operations otherwise needed.
-        // This makes a single atomic operation that eliminates possible race conditions.
-        // If `now` is merged/returned, the last successful accessed time for that client is greater than
-        // `RATE_LIMIT_SECONDS` seconds ago and therefor not rate limited.
-        return rateLimitMap.merge(ipAddressSequence, now, (oldValue, newValue) ->
-                now.isAfter(oldValue.plusSeconds(RATE_LIMIT_SECONDS)) ?  newValue : oldValue) != now;
+    public RateLimitResult consume(HttpServletRequest request, RateLimitPolicy policy) {
+        RateLimitResult result = buckets.get(policy).consume(getIpAddressString(request), System.nanoTime());
+        if (result.limited()) {
+            rejections.get(policy).increment();
+        }
+        return result;
     }
 
     private String getIpAddressString(HttpServletRequest request) {
@@ -32,4 +57,56 @@ public class RateLimitServiceImpl implements RateLimitService {
         }
         return ipAddressSequence;
     }
+
+    /**
+     * A token bucket implemented with the generic cell rate algorithm (GCRA).
+     * <p>
+     * Rather than storing a token count and a refill timestamp, each client is reduced to a single {@code long}: the
+     * theoretical arrival time (TAT) at which its bucket would be empty again. Consuming a token pushes the TAT forward
+     * by one emission interval, and a request is rejected when the TAT lies further in the future than the burst
+     * tolerance allows. A single compare-and-set on one {@link AtomicLong} therefore replaces the compound
+     * read-modify-write of a classic bucket.
+     * </p>
+     */
+    private static final class TokenBucket {
+        private final long capacity;
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        // An idle client's bucket is full again after one window, so its entry can expire without changing behaviour.
+        private final Cache<String, AtomicLong> clients;
+
+        private TokenBucket(RateLimitProperties.Budget budget, long maxClients) {
+            Duration window = budget.window();
+            this.capacity = budget.capacity();
+            this.emissionIntervalNanos = window.toNanos() / capacity;
+            this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+            this.clients = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(window)
+                    .recordStats()
+                    .build();
+        }
+
+        private RateLimitResult consume(String client, long now) {
+            AtomicLong theoreticalArrival = clients.get(client, key -> new AtomicLong(now));
+            while (true) {
+                long current = theoreticalArrival.get();
+                long start = Math.max(current, now);
+                long ahead = start - now;
+                if (ahead > burstToleranceNanos) {
+                    return new RateLimitResult(true, capacity, 0, toSeconds(ahead),
+                            Math.max(1, toSeconds(ahead - burstToleranceNanos)));
+                }
+                long next = start + emissionIntervalNanos;
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    long remaining = (burstToleranceNanos - ahead) / emissionIntervalNanos;
+                    return new RateLimitResult(false, capacity, remaining, toSeconds(next - now), 0);
+                }
+            }
+        }
+
+        private static long toSeconds(long nanos) {
+            return (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND;
+        }
+    }
 }
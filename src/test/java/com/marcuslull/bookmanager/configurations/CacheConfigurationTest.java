@@ -0,0 +1,63 @@
+package com.marcuslull.bookmanager.configurations;
+
+import com.marcuslull.bookmanager.repositories.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CacheConfigurationTest {
+
+    @Test
+    public void testCacheManager_CountIsRefreshedInBackground() {
+        BookRepository bookRepository = mock(BookRepository.class);
+        CountDownLatch countQuery = new CountDownLatch(1);
+        when(bookRepository.count()).thenAnswer(invocation -> {
+            countQuery.await();
+            return 2L;
+        });
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("bookRepository", bookRepository);
+        BookCacheProperties properties = new BookCacheProperties(
+                new BookCacheProperties.Books(DataSize.ofMegabytes(1), Duration.ofMinutes(10), false),
+                new BookCacheProperties.Misses(100, Duration.ofMinutes(1)),
+                new BookCacheProperties.Pages(100, Duration.ofMinutes(10)),
+                new BookCacheProperties.Count(Duration.ofNanos(1)),
+                null);
+        Cache countCache = new CacheConfiguration(properties, new MockEnvironment(), beanFactory.getBeanProvider(BookRepository.class))
+                .cacheManager().getCache("bookCount");
+
+        assertEquals(1L, countCache.get("all", () -> 1L));
+
+        // The count is out of date, so the previous count is served while it is recomputed.
+        assertEquals(1L, countCache.get("all", () -> 3L));
+        verify(bookRepository, timeout(1000)).count();
+        countQuery.countDown();
+    }
+
+    @Test
+    public void testCacheExecutor_VirtualThreads() {
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+
+        Executor executor = new CacheConfiguration(null, environment, null).cacheExecutor();
+
+        assertTrue(CompletableFuture.supplyAsync(() -> Thread.currentThread().isVirtual(), executor).join());
+    }
+
+    @Test
+    public void testCacheExecutor_PlatformThreads() {
+        Executor executor = new CacheConfiguration(null, new MockEnvironment(), null).cacheExecutor();
+
+        assertSame(ForkJoinPool.commonPool(), executor);
+    }
+}
@@ -2,13 +2,22 @@
 package com.marcuslull.bookmanager.controllers;
 
 import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.BookFilterDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.CursorPageDto;
+import com.marcuslull.bookmanager.dtos.DeleteSummaryDto;
+import com.marcuslull.bookmanager.dtos.ImportJobDto;
+import com.marcuslull.bookmanager.dtos.ImportSummaryDto;
 import com.marcuslull.bookmanager.dtos.PageDto;
-import com.marcuslull.bookmanager.entities.BookEntity;
+import com.marcuslull.bookmanager.dtos.SearchResultDto;
+import com.marcuslull.bookmanager.dtos.SliceDto;
+import com.marcuslull.bookmanager.exceptions.BatchSizeExceededException;
 import com.marcuslull.bookmanager.responses.ApiResponse;
 import com.marcuslull.bookmanager.responses.PostFieldErrorResponse;
 import com.marcuslull.bookmanager.responses.SuccessResponse;
+import com.marcuslull.bookmanager.services.BookImportService;
 import com.marcuslull.bookmanager.services.BookService;
-import com.marcuslull.bookmanager.services.RateLimitService;
+import com.marcuslull.bookmanager.services.BookWriteBehindService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,11 +27,15 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.BindingResult;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -37,17 +50,21 @@ public class BookControllerTest {
     private BookService bookService;
 
     @Mock
-    private RateLimitService rateLimitService;
+    private BookImportService bookImportService;
+
+    @Mock
+    private BookWriteBehindService bookWriteBehindService;
 
     private List<BookDto> bookDtoList;
     private HttpServletRequest request;
     private Pageable pageable;
     private PageDto pageDto;
     private BookDto bookDto;
-    private BookEntity bookEntity;
+    private BookResponseDto bookResponseDto;
     private Long id;
-    private List<BookEntity> bookEntityList;
+    private List<BookResponseDto> bookResponseDtoList;
     private BindingResult bindingResult;
+    private BookFilterDto noFilter;
 
     @BeforeEach
     public void setUp() {
@@ -58,40 +75,137 @@ public class BookControllerTest {
         bookDto = new BookDto("title", "author", 1, 2, true);
         bookDtoList = List.of(bookDto);
         pageDto = new PageDto(1, 1L, 0, 5, true, false, bookDtoList);
-        bookEntity = new BookEntity();
-        bookEntityList = List.of(bookEntity);
+        bookResponseDto = new BookResponseDto(id, "title", "author", 1, 2, true, 0L);
+        bookResponseDtoList = List.of(bookResponseDto);
         bindingResult = new BeanPropertyBindingResult(bookDtoList, "bookDtos");
+        noFilter = new BookFilterDto(null, null, null, null);
     }
 
     @Test
     public void testGetBooks_HappyPath() {
         when(bookService.findAllPaged(pageable)).thenReturn(pageDto);
-        when(rateLimitService.isLimited(request)).thenReturn(false);
 
-        ResponseEntity<?> responseEntity = bookController.getBooks(request, pageable);
+        ResponseEntity<?> responseEntity = bookController.getBooks(request, pageable, noFilter, true);
 
         assertEquals(200, responseEntity.getStatusCode().value());
         assertNotNull(responseEntity.getBody());
         assertInstanceOf(SuccessResponse.class, responseEntity.getBody());
         assertEquals(pageDto, ((SuccessResponse<PageDto>) responseEntity.getBody()).getData());
     }
+
+    @Test
+    public void testGetBooks_WithoutCount() {
+        SliceDto sliceDto = new SliceDto(0, 1, true, false, 1L, bookDtoList);
+        when(bookService.findAllSliced(pageable)).thenReturn(sliceDto);
+
+        ResponseEntity<?> responseEntity = bookController.getBooks(request, pageable, noFilter, false);
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        assertEquals(sliceDto, ((SuccessResponse<SliceDto>) responseEntity.getBody()).getData());
+        Mockito.verify(bookService, Mockito.never()).findAllPaged(pageable);
+    }
+
+    @Test
+    public void testGetBooks_Filtered() {
+        BookFilterDto filter = new BookFilterDto("author", false, null, null);
+        when(bookService.findAllFiltered(filter, pageable)).thenReturn(pageDto);
+
+        ResponseEntity<?> responseEntity = bookController.getBooks(request, pageable, filter, false);
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        assertEquals(pageDto, ((SuccessResponse<PageDto>) responseEntity.getBody()).getData());
+        Mockito.verify(bookService, Mockito.never()).findAllSliced(pageable);
+    }
+
+    @Test
+    public void testGetBooksByCursor_ClampsPageSize() {
+        CursorPageDto cursorPageDto = new CursorPageDto(1, false, null, bookDtoList);
+        when(bookService.findAllAfter("cursor", 2000)).thenReturn(cursorPageDto);
+
+        ResponseEntity<?> responseEntity = bookController.getBooksByCursor(request, "cursor", 1_000_000);
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        assertEquals(cursorPageDto, ((SuccessResponse<CursorPageDto>) responseEntity.getBody()).getData());
+    }
+
+    @Test
+    public void testSearchBooks_ClampsPageSize() {
+        SearchResultDto searchResultDto = new SearchResultDto(1, 1, bookResponseDtoList, Map.of("author", 1L), Map.of(true, 1L));
+        when(bookService.search("title", null, true, 2000)).thenReturn(searchResultDto);
+
+        ResponseEntity<?> responseEntity = bookController.searchBooks(request, "title", null, true, 1_000_000);
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        assertEquals(searchResultDto, ((SuccessResponse<SearchResultDto>) responseEntity.getBody()).getData());
+    }
+
+    @Test
+    public void testSearchBooks_BlankQuery() {
+        ResponseEntity<?> responseEntity = bookController.searchBooks(request, " ", null, null, 20);
+
+        assertEquals(400, responseEntity.getStatusCode().value());
+        assertInstanceOf(ApiResponse.class, responseEntity.getBody());
+    }
+
+    @Test
+    public void testGetBooksByIds_HappyPath() {
+        when(bookService.findAllById(List.of(id))).thenReturn(bookResponseDtoList);
+
+        ResponseEntity<?> responseEntity = bookController.getBooksByIds(request, List.of(id));
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        assertEquals(bookResponseDtoList, ((SuccessResponse<List<BookResponseDto>>) responseEntity.getBody()).getData());
+    }
+
+    @Test
+    public void testGetBooksByIds_TooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, 2001).boxed().toList();
+
+        assertThrows(BatchSizeExceededException.class, () -> bookController.getBooksByIds(request, ids));
+        Mockito.verifyNoInteractions(bookService);
+    }
+
     @Test
     public void testGetBook_HappyPath() {
-        when(bookService.findById(id)).thenReturn(bookEntity);
-        when(rateLimitService.isLimited(request)).thenReturn(false);
+        when(bookService.findById(id)).thenReturn(bookResponseDto);
+        when(bookService.toResponseData(bookResponseDto)).thenReturn(bookResponseDto);
 
         ResponseEntity<?> responseEntity = bookController.getBook(request, id);
 
         assertEquals(200, responseEntity.getStatusCode().value());
         assertNotNull(responseEntity.getBody());
         assertInstanceOf(SuccessResponse.class, responseEntity.getBody());
-        assertEquals(bookEntity, ((SuccessResponse<BookEntity>) responseEntity.getBody()).getData());
+        assertEquals(bookResponseDto, ((SuccessResponse<BookResponseDto>) responseEntity.getBody()).getData());
+    }
+
+    @Test
+    public void testGetBook_NotModified() {
+        when(bookService.findById(id)).thenReturn(bookResponseDto);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("W/\"1-0\"");
+
+        ResponseEntity<?> responseEntity = bookController.getBook(request, id);
+
+        assertEquals(304, responseEntity.getStatusCode().value());
+        assertEquals("\"1-0\"", responseEntity.getHeaders().getETag());
+        assertNull(responseEntity.getBody());
+        Mockito.verify(bookService, Mockito.never()).toResponseData(bookResponseDto);
+    }
+
+    @Test
+    public void testGetBooks_NotModified() {
+        when(bookService.findAllPaged(pageable)).thenReturn(pageDto);
+        String eTag = bookController.getBooks(request, pageable, noFilter, true).getHeaders().getETag();
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(eTag);
+
+        ResponseEntity<?> responseEntity = bookController.getBooks(request, pageable, noFilter, true);
+
+        assertEquals(304, responseEntity.getStatusCode().value());
+        assertNull(responseEntity.getBody());
     }
 
     @Test
     public void testGetBook_NotFound() {
         when(bookService.findById(id)).thenReturn(null);
-        when(rateLimitService.isLimited(request)).thenReturn(false);
 
         ResponseEntity<?> responseEntity = bookController.getBook(request, id);
 
@@ -101,20 +215,18 @@ public class BookControllerTest {
     }
     @Test
     public void testPostBooks_HappyPath() {
-        when(bookService.saveAll(bookDtoList)).thenReturn(bookEntityList);
-        when(rateLimitService.isLimited(request)).thenReturn(false);
+        when(bookService.saveAll(bookDtoList)).thenReturn(bookResponseDtoList);
 
         ResponseEntity<?> responseEntity = bookController.postBooks(request, bookDtoList, bindingResult);
 
         assertEquals(201, responseEntity.getStatusCode().value());
         assertNotNull(responseEntity.getBody());
         assertInstanceOf(SuccessResponse.class, responseEntity.getBody());
-        assertEquals(bookEntityList, ((SuccessResponse<List<BookEntity>>) responseEntity.getBody()).getData());
+        assertEquals(bookResponseDtoList, ((SuccessResponse<List<BookResponseDto>>) responseEntity.getBody()).getData());
     }
 
     @Test
     public void testPostBooks_FieldErrors() {
-        when(rateLimitService.isLimited(request)).thenReturn(false);
         bindingResult.rejectValue(null, "");
 
         ResponseEntity<?> responseEntity = bookController.postBooks(request, bookDtoList, bindingResult);
@@ -124,9 +236,54 @@ public class BookControllerTest {
         assertInstanceOf(PostFieldErrorResponse.class, responseEntity.getBody());
     }
 
+    @Test
+    public void testPostBooks_WriteBehind() {
+        ImportJobDto job = new ImportJobDto("job-1", ImportJobDto.Status.PENDING, 1, 1, 0, 0, 0);
+        when(bookWriteBehindService.isEnabled()).thenReturn(true);
+        when(bookWriteBehindService.enqueue(bookDtoList)).thenReturn(job);
+        when(request.getContextPath()).thenReturn("");
+
+        ResponseEntity<?> responseEntity = bookController.postBooks(request, bookDtoList, bindingResult);
+
+        assertEquals(202, responseEntity.getStatusCode().value());
+        assertEquals("/api/v1/imports/job-1", responseEntity.getHeaders().getLocation().toString());
+        assertEquals(job, ((SuccessResponse<ImportJobDto>) responseEntity.getBody()).getData());
+        Mockito.verifyNoInteractions(bookService);
+    }
+
+    @Test
+    public void testGetImportJob_HappyPath() {
+        ImportJobDto job = new ImportJobDto("job-1", ImportJobDto.Status.COMPLETED, 2, 1, 1, 1, 0);
+        when(bookWriteBehindService.findJob("job-1")).thenReturn(job);
+
+        ResponseEntity<?> responseEntity = bookController.getImportJob(request, "job-1");
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        assertEquals(job, ((SuccessResponse<ImportJobDto>) responseEntity.getBody()).getData());
+    }
+
+    @Test
+    public void testGetImportJob_NotFound() {
+        ResponseEntity<?> responseEntity = bookController.getImportJob(request, "unknown");
+
+        assertEquals(404, responseEntity.getStatusCode().value());
+        assertInstanceOf(ApiResponse.class, responseEntity.getBody());
+    }
+
+    @Test
+    public void testImportBooks_HappyPath() throws IOException {
+        ImportSummaryDto importSummaryDto = new ImportSummaryDto(3, 2, 1, 0, 1, List.of());
+        when(bookImportService.importBooks(request.getInputStream())).thenReturn(importSummaryDto);
+
+        ResponseEntity<?> responseEntity = bookController.importBooks(request);
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        assertInstanceOf(SuccessResponse.class, responseEntity.getBody());
+        assertEquals(importSummaryDto, ((SuccessResponse<ImportSummaryDto>) responseEntity.getBody()).getData());
+    }
+
     @Test
     public void testDeleteBook_HappyPath() {
-        when(rateLimitService.isLimited(request)).thenReturn(false);
 
         ResponseEntity<?> responseEntity = bookController.deleteBook(request, id);
 
@@ -135,10 +292,29 @@ public class BookControllerTest {
 
     @Test
     public void testDeleteBook_NotFound() {
-        when(rateLimitService.isLimited(request)).thenReturn(false);
 
         ResponseEntity<?> responseEntity = bookController.deleteBook(request, id);
 
         assertEquals(204, responseEntity.getStatusCode().value());
     }
+
+    @Test
+    public void testDeleteBooksByIds_HappyPath() {
+        when(bookService.deleteAllById(List.of(id))).thenReturn(1);
+
+        ResponseEntity<?> responseEntity = bookController.deleteBooksByIds(request, List.of(id));
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        assertEquals(new DeleteSummaryDto(1), ((SuccessResponse<DeleteSummaryDto>) responseEntity.getBody()).getData());
+    }
+
+    @Test
+    public void testDeleteBooksByAuthor_HappyPath() {
+        when(bookService.deleteAllByAuthor("author", null)).thenReturn(3);
+
+        ResponseEntity<?> responseEntity = bookController.deleteBooksByAuthor(request, "author", null);
+
+        assertEquals(200, responseEntity.getStatusCode().value());
+        assertEquals(new DeleteSummaryDto(3), ((SuccessResponse<DeleteSummaryDto>) responseEntity.getBody()).getData());
+    }
 }
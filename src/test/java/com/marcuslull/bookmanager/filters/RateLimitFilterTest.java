@@ -0,0 +1,105 @@
+package com.marcuslull.bookmanager.filters;
+
+import com.marcuslull.bookmanager.exceptions.RequestLimitExceededException;
+import com.marcuslull.bookmanager.services.RateLimitPolicy;
+import com.marcuslull.bookmanager.services.RateLimitResult;
+import com.marcuslull.bookmanager.services.RateLimitService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitFilterTest {
+
+    private RateLimitFilter rateLimitFilter;
+
+    @Mock
+    private RateLimitService rateLimitService;
+
+    @Mock
+    private HandlerExceptionResolver handlerExceptionResolver;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private MockHttpServletResponse response;
+    private RateLimitResult allowed;
+
+    @BeforeEach
+    public void setUp() {
+        rateLimitFilter = new RateLimitFilter(rateLimitService, handlerExceptionResolver);
+        response = new MockHttpServletResponse();
+        allowed = new RateLimitResult(false, 10, 9, 6, 0);
+    }
+
+    @Test
+    public void testDoFilter_AllowedRequestContinuesWithHeaders() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books");
+        when(rateLimitService.consume(request, RateLimitPolicy.LIST_BOOKS)).thenReturn(allowed);
+
+        rateLimitFilter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        assertEquals("10", response.getHeader(RateLimitResult.LIMIT_HEADER));
+        assertEquals("9", response.getHeader(RateLimitResult.REMAINING_HEADER));
+        assertEquals("6", response.getHeader(RateLimitResult.RESET_HEADER));
+    }
+
+    @Test
+    public void testDoFilter_LimitedRequestIsRejectedBeforeDispatch() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/books");
+        when(rateLimitService.consume(request, RateLimitPolicy.POST_BOOKS)).thenReturn(new RateLimitResult(true, 10, 0, 60, 6));
+
+        rateLimitFilter.doFilter(request, response, filterChain);
+
+        ArgumentCaptor<Exception> exception = ArgumentCaptor.forClass(Exception.class);
+        verify(handlerExceptionResolver).resolveException(eq(request), eq(response), isNull(), exception.capture());
+        assertInstanceOf(RequestLimitExceededException.class, exception.getValue());
+        assertEquals(6, ((RequestLimitExceededException) exception.getValue()).getRetryAfterSeconds());
+        assertEquals(0, exception.getValue().getStackTrace().length);
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    public void testDoFilter_ResolvesPolicyFromMethodAndPath() throws ServletException, IOException {
+        assertPolicy("GET", "/api/v1/books/42", RateLimitPolicy.GET_BOOK);
+        assertPolicy("POST", "/api/v1/books:import", RateLimitPolicy.POST_BOOKS);
+        assertPolicy("DELETE", "/api/v1/books/42", RateLimitPolicy.DELETE_BOOKS);
+        assertPolicy("GET", "/api/v1/imports/0b7e2c4e-5d1a-4f3b-9c8d-2a6e1f0b9d47", RateLimitPolicy.LIST_BOOKS);
+    }
+
+    @Test
+    public void testDoFilter_IgnoresOtherPaths() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/api-docs");
+
+        rateLimitFilter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(rateLimitService);
+    }
+
+    private void assertPolicy(String method, String path, RateLimitPolicy policy) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        when(rateLimitService.consume(any(), eq(policy))).thenReturn(allowed);
+
+        rateLimitFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        verify(rateLimitService).consume(request, policy);
+    }
+}
@@ -0,0 +1,58 @@
+package com.marcuslull.bookmanager.handlers;
+
+import com.marcuslull.bookmanager.responses.ApiResponse;
+import com.marcuslull.bookmanager.responses.UnexpectedExceptionResponse;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler globalExceptionHandler = new GlobalExceptionHandler();
+
+    @BeforeEach
+    public void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("POST", "/api/v1/books")));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testHandleDataIntegrityViolationException_DuplicateBook() {
+        ConstraintViolationException violation = violation("PUBLIC.UK_BOOKS_DEDUPE_ID_INDEX_3");
+
+        ResponseEntity<?> translated = globalExceptionHandler.handleDataIntegrityViolationException(
+                new DataIntegrityViolationException("duplicate", violation));
+        ResponseEntity<?> untranslated = globalExceptionHandler.handleDataIntegrityViolationException(violation);
+
+        assertEquals(409, translated.getStatusCode().value());
+        assertInstanceOf(ApiResponse.class, translated.getBody());
+        assertEquals(409, untranslated.getStatusCode().value());
+    }
+
+    @Test
+    public void testHandleDataIntegrityViolationException_OtherConstraint() {
+        ResponseEntity<?> responseEntity = globalExceptionHandler.handleDataIntegrityViolationException(
+                new DataIntegrityViolationException("not null", violation(null)));
+
+        assertEquals(500, responseEntity.getStatusCode().value());
+        assertInstanceOf(UnexpectedExceptionResponse.class, responseEntity.getBody());
+    }
+
+    private static ConstraintViolationException violation(String constraintName) {
+        return new ConstraintViolationException("violation", new SQLException("violation"), constraintName);
+    }
+}
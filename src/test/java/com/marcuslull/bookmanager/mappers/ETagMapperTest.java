@@ -0,0 +1,67 @@
+package com.marcuslull.bookmanager.mappers;
+
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.CursorPageDto;
+import com.marcuslull.bookmanager.dtos.PageDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ETagMapperTest {
+
+    private final BookResponseDto book = new BookResponseDto(12L, "title", "author", 1, 2, true, 3L);
+
+    @Test
+    public void testToETag_BookIsStrong() {
+        assertEquals("\"12-3\"", ETagMapper.toETag(book));
+    }
+
+    @Test
+    public void testToETag_PageChangesWithBookVersion() {
+        BookResponseDto updatedBook = new BookResponseDto(12L, "new title", "author", 1, 2, true, 4L);
+
+        String eTag = ETagMapper.toETag(page(book));
+
+        assertTrue(eTag.startsWith("W/\""));
+        assertEquals(eTag, ETagMapper.toETag(page(book)));
+        assertNotEquals(eTag, ETagMapper.toETag(page(updatedBook)));
+    }
+
+    @Test
+    public void testToETag_CursorPageChangesWithHasNext() {
+        String eTag = ETagMapper.toETag(new CursorPageDto(1, false, null, List.of(book)));
+
+        assertNotEquals(eTag, ETagMapper.toETag(new CursorPageDto(1, true, "cursor", List.of(book))));
+    }
+
+    @Test
+    public void testMatches_WeakComparison() {
+        assertTrue(ETagMapper.matches("W/\"12-3\"", "\"12-3\""));
+        assertTrue(ETagMapper.matches("\"1f3a\"", "W/\"1f3a\""));
+        assertFalse(ETagMapper.matches("\"12-2\"", "\"12-3\""));
+    }
+
+    @Test
+    public void testMatches_CommaSeparatedList() {
+        assertTrue(ETagMapper.matches("\"12-1\", W/\"12-3\" ,\"12-2\"", "\"12-3\""));
+        assertFalse(ETagMapper.matches("\"12-1\", \"12-2\"", "\"12-3\""));
+    }
+
+    @Test
+    public void testMatches_Wildcard() {
+        assertTrue(ETagMapper.matches("*", "\"12-3\""));
+        assertTrue(ETagMapper.matches("\"12-1\", *", "W/\"1f3a\""));
+    }
+
+    @Test
+    public void testMatches_MissingHeader() {
+        assertFalse(ETagMapper.matches(null, "\"12-3\""));
+        assertFalse(ETagMapper.matches("", "\"12-3\""));
+    }
+
+    private static PageDto page(BookResponseDto book) {
+        return new PageDto(1, 1L, 0, 20, true, true, List.of(book));
+    }
+}
@@ -0,0 +1,63 @@
+package com.marcuslull.bookmanager.repositories;
+
+import com.marcuslull.bookmanager.dtos.BookFilterDto;
+import com.marcuslull.bookmanager.entities.BookEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class BookSpecificationsTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @BeforeEach
+    public void setUp() {
+        bookRepository.saveAll(List.of(
+                new BookEntity("The Hobbit", "J.R.R. Tolkien", 310, 1, true),
+                new BookEntity("The Silmarillion", "J.R.R. Tolkien", 365, 2, false),
+                new BookEntity("Dune", "Frank Herbert", 412, 1, false),
+                new BookEntity("Emma", "Jane Austen", 474, 1, null)));
+    }
+
+    @Test
+    public void testMatching_NoFilterMatchesAll() {
+        assertEquals(List.of("The Hobbit", "The Silmarillion", "Dune", "Emma"), titles(new BookFilterDto(null, null, null, null)));
+    }
+
+    @Test
+    public void testMatching_Author() {
+        assertEquals(List.of("The Hobbit", "The Silmarillion"), titles(new BookFilterDto("J.R.R. Tolkien", null, null, null)));
+    }
+
+    @Test
+    public void testMatching_Finished() {
+        assertEquals(List.of("The Silmarillion", "Dune"), titles(new BookFilterDto(null, false, null, null)));
+    }
+
+    @Test
+    public void testMatching_PageRangeIsInclusive() {
+        assertEquals(List.of("The Silmarillion", "Dune"), titles(new BookFilterDto(null, null, 365, 412)));
+        assertEquals(List.of("Dune", "Emma"), titles(new BookFilterDto(null, null, 400, null)));
+        assertEquals(List.of("The Hobbit"), titles(new BookFilterDto(null, null, null, 364)));
+    }
+
+    @Test
+    public void testMatching_CombinesFilters() {
+        assertEquals(List.of("The Silmarillion"), titles(new BookFilterDto("J.R.R. Tolkien", false, 300, null)));
+        assertEquals(List.of(), titles(new BookFilterDto("J.R.R. Tolkien", true, 320, 500)));
+    }
+
+    private List<String> titles(BookFilterDto filter) {
+        return bookRepository.findAll(BookSpecifications.matching(filter), Sort.by("pages")).stream()
+                .map(BookEntity::getTitle)
+                .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package com.marcuslull.bookmanager.services;
+
+import com.marcuslull.bookmanager.configurations.AccessLogProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessLogServiceTest {
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books");
+
+    @Test
+    public void testRecord_SamplesSuccessesButKeepsErrors() {
+        AccessLogService accessLogService = new AccessLogService(new AccessLogProperties(10, 0.0), new SimpleMeterRegistry());
+
+        accessLogService.record(request, 200, 1_000);
+        accessLogService.record(request, 304, 1_000);
+        accessLogService.record(request, 429, 1_000);
+        accessLogService.record(request, 500, 1_000);
+
+        assertEquals(2, accessLogService.getPending());
+    }
+
+    @Test
+    public void testRecord_DropsWhenBufferIsFull() {
+        AccessLogService accessLogService = new AccessLogService(new AccessLogProperties(2, 1.0), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 5; i++) {
+            accessLogService.record(request, 200, 1_000);
+        }
+
+        assertEquals(2, accessLogService.getPending());
+        assertEquals(3, accessLogService.getDropped());
+    }
+
+    @Test
+    public void testStop_WritesPendingEntries() throws InterruptedException {
+        AccessLogService accessLogService = new AccessLogService(new AccessLogProperties(10, 1.0), new SimpleMeterRegistry());
+        accessLogService.record(request, 200, 1_000);
+
+        accessLogService.start();
+        accessLogService.stop();
+
+        assertEquals(0, accessLogService.getPending());
+    }
+}
@@ -0,0 +1,132 @@
+package com.marcuslull.bookmanager.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcuslull.bookmanager.configurations.BookCacheProperties;
+import com.marcuslull.bookmanager.configurations.CacheConfiguration;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.repositories.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookCacheServiceImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookCacheServiceImpl bookCacheService;
+    private CacheManager cacheManager;
+
+    private BookResponseDto book;
+
+    @BeforeEach
+    public void setUp() {
+        BookCacheProperties properties = new BookCacheProperties(
+                new BookCacheProperties.Books(DataSize.ofMegabytes(1), Duration.ofMinutes(10), false),
+                new BookCacheProperties.Misses(100, Duration.ofMinutes(1)),
+                new BookCacheProperties.Pages(100, Duration.ofMinutes(10)),
+                new BookCacheProperties.Count(Duration.ofSeconds(30)),
+                null);
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(properties, new MockEnvironment(), null);
+        cacheManager = cacheConfiguration.cacheManager();
+        bookCacheService = new BookCacheServiceImpl(bookRepository, cacheManager, new ObjectMapper());
+        book = new BookResponseDto(7L, "title", "author", 1, 2, true, 0L);
+    }
+
+    @Test
+    public void testFindBookById_RemembersMiss() {
+        when(bookRepository.findProjectedById(7L)).thenReturn(Optional.empty());
+
+        assertNull(bookCacheService.findBookById(7L));
+        assertNull(bookCacheService.findBookById(7L));
+
+        verify(bookRepository, times(1)).findProjectedById(7L);
+    }
+
+    @Test
+    public void testPutBooks_ForgetsMiss() {
+        when(bookRepository.findProjectedById(7L)).thenReturn(Optional.empty());
+        bookCacheService.findBookById(7L);
+
+        bookCacheService.putBooks(() -> List.of(book));
+
+        assertEquals(book, bookCacheService.findBookById(7L));
+        verify(bookRepository, times(1)).findProjectedById(7L);
+    }
+
+    @Test
+    public void testFindBooksByIds_SkipsRememberedMisses() {
+        when(bookRepository.findProjectedByIdIn(anyCollection())).thenReturn(List.of(book));
+
+        assertEquals(List.of(book), bookCacheService.findBooksByIds(List.of(7L, 8L)));
+        assertEquals(List.of(book), bookCacheService.findBooksByIds(List.of(7L, 8L)));
+
+        verify(bookRepository, times(1)).findProjectedByIdIn(anyCollection());
+        assertNull(bookCacheService.findBookById(8L));
+        verify(bookRepository, never()).findProjectedById(8L);
+    }
+
+    @Test
+    public void testFindBookById_BookCachedDuringMissIsNotHidden() {
+        // The book is saved and cached by another request while this lookup is still reading the database.
+        when(bookRepository.findProjectedById(7L)).thenAnswer(invocation -> {
+            cacheManager.getCache("books").put(7L, book);
+            return Optional.empty();
+        });
+
+        bookCacheService.findBookById(7L);
+
+        assertEquals(book, bookCacheService.findBookById(7L));
+        assertEquals(List.of(book), bookCacheService.findBooksByIds(List.of(7L)));
+    }
+
+    @Test
+    public void testPutBooks_SkipsBooksReadBeforeEviction() {
+        when(bookRepository.findProjectedById(7L)).thenReturn(Optional.empty());
+
+        // The book is deleted and evicted by another request while the warm-up is still reading it.
+        List<BookResponseDto> read = bookCacheService.putBooks(() -> {
+            bookCacheService.cacheEvictBooks(List.of(7L));
+            return List.of(book);
+        });
+
+        assertEquals(List.of(book), read);
+        assertNull(bookCacheService.findBookById(7L));
+    }
+
+    @Test
+    public void testPutBooks_KeepsCachedBook() {
+        BookResponseDto staleBook = new BookResponseDto(7L, "old title", "author", 1, 2, true, 0L);
+        bookCacheService.putBooks(() -> List.of(book));
+
+        bookCacheService.putBooks(() -> List.of(staleBook));
+
+        assertEquals(book, bookCacheService.findBookById(7L));
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    public void testCacheEvictMisses_ForgetsMiss() {
+        when(bookRepository.findProjectedById(7L)).thenReturn(Optional.empty(), Optional.of(book));
+        bookCacheService.findBookById(7L);
+
+        bookCacheService.cacheEvictMisses(List.of(7L));
+
+        assertEquals(book, bookCacheService.findBookById(7L));
+        verify(bookRepository, times(2)).findProjectedById(7L);
+    }
+}
@@ -0,0 +1,78 @@
+package com.marcuslull.bookmanager.services;
+
+import com.marcuslull.bookmanager.configurations.BookCacheProperties;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.repositories.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookCacheWarmerTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookCacheService bookCacheService;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    public void testSaveRecentBooks_WritesMostRecentlyReadIds() throws IOException {
+        Path recentFile = tempDir.resolve("recent");
+        when(bookCacheService.findRecentlyReadBookIds(10)).thenReturn(List.of(5L, 3L));
+
+        warmer(BookCacheProperties.WarmUp.Mode.RECENT, recentFile).saveRecentBooks();
+
+        assertEquals(List.of("5", "3"), Files.readAllLines(recentFile));
+    }
+
+    @Test
+    public void testWarmUp_RecentLoadsSavedIds() throws IOException {
+        Path recentFile = Files.write(tempDir.resolve("recent"), List.of("5", "3"));
+
+        warmer(BookCacheProperties.WarmUp.Mode.RECENT, recentFile).warmUp();
+
+        verify(bookCacheService).findBooksByIds(List.of(5L, 3L));
+    }
+
+    @Test
+    public void testWarmUp_RecentWithoutFile() {
+        warmer(BookCacheProperties.WarmUp.Mode.RECENT, tempDir.resolve("missing")).warmUp();
+
+        verifyNoInteractions(bookCacheService, bookRepository);
+    }
+
+    @Test
+    public void testWarmUp_AllCachesEveryPage() {
+        BookResponseDto book = new BookResponseDto(1L, "title", "author", 1, 2, true, 0L);
+        when(bookRepository.findFirstByKeyset(Limit.of(1000))).thenReturn(List.of(book));
+        when(bookCacheService.putBooks(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+
+        warmer(BookCacheProperties.WarmUp.Mode.ALL, tempDir.resolve("recent")).warmUp();
+
+        verify(bookCacheService).putBooks(any());
+        verify(bookRepository).findFirstByKeyset(Limit.of(1000));
+        verify(bookRepository, never()).findAfterKeyset(any(), any(), any());
+    }
+
+    private BookCacheWarmer warmer(BookCacheProperties.WarmUp.Mode mode, Path recentFile) {
+        BookCacheProperties properties = new BookCacheProperties(null, null, null, null,
+                new BookCacheProperties.WarmUp(mode, 10, recentFile));
+        return new BookCacheWarmer(bookRepository, bookCacheService, properties);
+    }
+}
@@ -0,0 +1,117 @@
+package com.marcuslull.bookmanager.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.ImportSummaryDto;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookImportServiceTest {
+
+    @Mock
+    private BookService bookService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ValidatorFactory validatorFactory;
+    private BookImportService bookImportService;
+
+    private BookDto hobbit;
+    private BookDto dune;
+    private BookDto emma;
+
+    @BeforeEach
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        Validator validator = validatorFactory.getValidator();
+        bookImportService = new BookImportService(bookService, objectMapper, validator, 2);
+        hobbit = new BookDto("The Hobbit", "J.R.R. Tolkien", 310, 1, true);
+        dune = new BookDto("Dune", "Frank Herbert", 412, 1, false);
+        emma = new BookDto("Emma", "Jane Austen", 474, 1, null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    public void testImportBooks_JsonArrayInBatches() throws IOException {
+        when(bookService.importBatch(List.of(hobbit, dune))).thenReturn(2);
+        when(bookService.importBatch(List.of(emma))).thenReturn(0);
+
+        ImportSummaryDto summary = bookImportService.importBooks(json(List.of(hobbit, dune, emma)));
+
+        assertEquals(new ImportSummaryDto(3, 2, 1, 0, 2, List.of()), summary);
+    }
+
+    @Test
+    public void testImportBooks_NewlineDelimitedJson() throws IOException {
+        when(bookService.importBatch(List.of(hobbit))).thenReturn(1);
+        InputStream body = stream(objectMapper.writeValueAsString(hobbit) + "\n");
+
+        ImportSummaryDto summary = bookImportService.importBooks(body);
+
+        assertEquals(new ImportSummaryDto(1, 1, 0, 0, 1, List.of()), summary);
+    }
+
+    @Test
+    public void testImportBooks_InvalidAndNullBooksAreSkipped() throws IOException {
+        when(bookService.importBatch(List.of(hobbit))).thenReturn(1);
+        String invalidBook = objectMapper.writeValueAsString(new BookDto("The Hobbit", "J.R.R. Tolkien", -1, 1, true));
+        InputStream body = stream("[null, " + invalidBook + ", " + objectMapper.writeValueAsString(hobbit) + "]");
+
+        ImportSummaryDto summary = bookImportService.importBooks(body);
+
+        assertEquals(3, summary.received());
+        assertEquals(1, summary.imported());
+        assertEquals(0, summary.duplicates());
+        assertEquals(2, summary.invalid());
+        assertEquals(1, summary.batches());
+        assertEquals("book 1: must not be null", summary.errorMessages().get(0));
+        assertTrue(summary.errorMessages().get(1).startsWith("book 2: pages "));
+    }
+
+    @Test
+    public void testImportBooks_NothingImported() throws IOException {
+        ImportSummaryDto summary = bookImportService.importBooks(stream("[]"));
+
+        assertEquals(new ImportSummaryDto(0, 0, 0, 0, 0, List.of()), summary);
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    public void testImportBooks_MalformedBodyKeepsCommittedBatches() throws JsonProcessingException {
+        when(bookService.importBatch(List.of(hobbit, dune))).thenReturn(2);
+        String books = objectMapper.writeValueAsString(hobbit) + ", " + objectMapper.writeValueAsString(dune);
+
+        assertThrows(IOException.class, () -> bookImportService.importBooks(stream("[" + books + ", {\"title\": ")));
+
+        verify(bookService).importBatch(anyList());
+    }
+
+    private InputStream json(List<BookDto> books) throws JsonProcessingException {
+        return stream(objectMapper.writeValueAsString(books));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,90 @@
+package com.marcuslull.bookmanager.services;
+
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.SearchResultDto;
+import com.marcuslull.bookmanager.repositories.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSearchServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookSearchService bookSearchService;
+
+    private BookResponseDto hobbit;
+    private BookResponseDto silmarillion;
+    private BookResponseDto dune;
+
+    @BeforeEach
+    public void setUp() {
+        bookSearchService = new BookSearchService(bookRepository);
+        hobbit = new BookResponseDto(1L, "The Hobbit", "J.R.R. Tolkien", 310, 1, true, 0L);
+        silmarillion = new BookResponseDto(2L, "The Silmarillion", "J.R.R. Tolkien", 365, 2, false, 0L);
+        dune = new BookResponseDto(3L, "Dune", "Frank Herbert", 412, 1, false, 0L);
+        bookSearchService.index(List.of(hobbit, silmarillion, dune));
+    }
+
+    @Test
+    public void testSearch_MatchesEveryTokenByPrefix() {
+        SearchResultDto result = bookSearchService.search("tolk HOBB", null, null, 20);
+
+        assertEquals(1, result.totalElements());
+        assertEquals(List.of(hobbit), result.content());
+    }
+
+    @Test
+    public void testSearch_ReturnsFirstMatchesInTitleOrder() {
+        SearchResultDto result = bookSearchService.search("the", null, null, 1);
+
+        assertEquals(2, result.totalElements());
+        assertEquals(List.of(hobbit), result.content());
+    }
+
+    @Test
+    public void testSearch_BlankQueryMatchesNothing() {
+        SearchResultDto result = bookSearchService.search(" ", null, null, 2);
+
+        assertEquals(0, result.totalElements());
+        assertEquals(List.of(), result.content());
+    }
+
+    @Test
+    public void testSearch_FacetsIgnoreTheirOwnFilter() {
+        SearchResultDto result = bookSearchService.search("the", "j.r.r. tolkien", false, 20);
+
+        assertEquals(List.of(silmarillion), result.content());
+        assertEquals(Map.of("J.R.R. Tolkien", 1L), result.authors());
+        assertEquals(Map.of(true, 1L, false, 1L), result.finished());
+    }
+
+    @Test
+    public void testRemove_DropsBookFromIndex() {
+        bookSearchService.remove(List.of(1L, 42L));
+
+        assertEquals(0, bookSearchService.search("hobbit", null, null, 20).totalElements());
+        assertEquals(1, bookSearchService.search("tolkien", null, null, 20).totalElements());
+    }
+
+    @Test
+    public void testLoadIndex_ReadsAllKeysetPages() {
+        BookSearchService loadedSearchService = new BookSearchService(bookRepository);
+        when(bookRepository.findFirstByKeyset(Limit.of(1000))).thenReturn(List.of(dune));
+
+        loadedSearchService.loadIndex();
+
+        assertEquals(List.of(dune), loadedSearchService.search("dune", null, null, 20).content());
+    }
+}
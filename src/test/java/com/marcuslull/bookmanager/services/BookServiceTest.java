@@ -0,0 +1,290 @@
+package com.marcuslull.bookmanager.services;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.marcuslull.bookmanager.configurations.BookCacheProperties;
+import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.CursorPageDto;
+import com.marcuslull.bookmanager.entities.BookEntity;
+import com.marcuslull.bookmanager.exceptions.DuplicateEntityException;
+import com.marcuslull.bookmanager.exceptions.InvalidCursorException;
+import com.marcuslull.bookmanager.repositories.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookServiceTest {
+
+    private static final int BATCH_SIZE = 100;
+
+    private BookService bookService;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookCacheService bookCacheService;
+
+    @Mock
+    private BookSearchService bookSearchService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private BookDto newBook;
+    private BookDto existingBook;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookService = new BookService(bookRepository, bookCacheService, bookSearchService, entityManager, BATCH_SIZE, cacheProperties(false, BookCacheProperties.WarmUp.Mode.NONE), meterRegistry);
+        newBook = new BookDto("New title", "author", 100, 1, false);
+        existingBook = new BookDto("Existing title", "author", 200, 1, true);
+    }
+
+    @Test
+    public void testSaveAll_SkipsExistingBooks() {
+        Long existingDedupeId = BookEntity.fromDto(existingBook).getDedupeId();
+        when(bookRepository.findExistingDedupeIds(anyCollection())).thenReturn(Set.of(existingDedupeId));
+
+        List<BookResponseDto> saved = bookService.saveAll(List.of(newBook, existingBook));
+
+        assertEquals(1, saved.size());
+        assertEquals("New title", saved.getFirst().title());
+        verify(bookRepository, times(1)).findExistingDedupeIds(anyCollection());
+        verify(bookCacheService).putBook(saved.getFirst());
+        verify(bookCacheService).cacheEvictPages();
+        verify(bookSearchService).index(saved);
+        assertEquals(1.0, meterRegistry.get("book.duplicates").tag("source", "database").counter().count());
+    }
+
+    @Test
+    public void testSaveAll_RemovesDuplicatesWithinRequest() {
+        when(bookRepository.findExistingDedupeIds(anyCollection())).thenReturn(Set.of());
+
+        List<BookResponseDto> saved = bookService.saveAll(List.of(newBook, newBook, newBook));
+
+        assertEquals(1, saved.size());
+        assertEquals(2.0, meterRegistry.get("book.duplicates").tag("source", "request").counter().count());
+    }
+
+    @Test
+    public void testSaveAll_NormalizesDedupeKey() {
+        BookDto respelledBook = new BookDto("  new   TITLE ", "Author", 100, 2, true);
+        when(bookRepository.findExistingDedupeIds(anyCollection())).thenReturn(Set.of());
+
+        List<BookResponseDto> saved = bookService.saveAll(List.of(newBook, respelledBook));
+
+        assertEquals(1, saved.size());
+    }
+
+    @Test
+    public void testSaveAll_ChunksDedupeQuery() {
+        List<BookDto> books = new ArrayList<>();
+        for (int i = 0; i < 1_200; i++) {
+            books.add(new BookDto("Title " + i, "author", 100, 1, false));
+        }
+        when(bookRepository.findExistingDedupeIds(anyCollection())).thenReturn(Set.of());
+
+        List<BookResponseDto> saved = bookService.saveAll(books);
+
+        assertEquals(1_200, saved.size());
+        verify(bookRepository, times(3)).findExistingDedupeIds(anyCollection());
+        verify(bookRepository, times(12)).saveAll(any());
+        verify(entityManager, times(12)).flush();
+        verify(entityManager, times(12)).clear();
+    }
+
+    @Test
+    public void testSaveAll_AllDuplicates() {
+        when(bookRepository.findExistingDedupeIds(anyCollection())).thenAnswer(invocation ->
+                Set.copyOf(invocation.<Collection<Long>>getArgument(0)));
+
+        assertThrows(DuplicateEntityException.class, () -> bookService.saveAll(List.of(existingBook)));
+        verify(bookRepository, never()).saveAll(any());
+        verifyNoInteractions(bookCacheService, bookSearchService);
+    }
+
+    @Test
+    public void testSaveAll_UpdatesCacheAfterCommit() {
+        when(bookRepository.findExistingDedupeIds(anyCollection())).thenReturn(Set.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            List<BookResponseDto> saved = bookService.saveAll(List.of(newBook));
+
+            verifyNoInteractions(bookCacheService, bookSearchService);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(bookCacheService).putBook(saved.getFirst());
+            verify(bookCacheService).cacheEvictPages();
+            verify(bookSearchService).index(saved);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testDeleteById_EvictsAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookService.deleteById(1L);
+
+            verify(bookRepository).deleteById(1L);
+            verifyNoInteractions(bookCacheService, bookSearchService);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(bookCacheService).cacheEvictBook(1L);
+            verify(bookCacheService).cacheEvictPages();
+            verify(bookSearchService).remove(List.of(1L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testImportBatch_ForgetsMissesWithoutCaching() {
+        when(bookRepository.findExistingDedupeIds(anyCollection())).thenReturn(Set.of());
+
+        int imported = bookService.importBatch(List.of(newBook, newBook));
+
+        assertEquals(1, imported);
+        verify(bookCacheService).cacheEvictMisses(anyCollection());
+        verify(bookCacheService).cacheEvictPages();
+        verify(bookCacheService, never()).putBook(any());
+        verify(bookCacheService, never()).putBooks(any());
+    }
+
+    @Test
+    public void testImportBatch_CachesBooksWhenWarmingUpAll() {
+        BookService warmingBookService = new BookService(bookRepository, bookCacheService, bookSearchService, entityManager, BATCH_SIZE, cacheProperties(false, BookCacheProperties.WarmUp.Mode.ALL), meterRegistry);
+        when(bookRepository.findExistingDedupeIds(anyCollection())).thenReturn(Set.of());
+
+        warmingBookService.importBatch(List.of(newBook));
+
+        verify(bookCacheService).putBooks(any());
+    }
+
+    @Test
+    public void testFindAllById_LooksUpEachIdOnce() {
+        BookResponseDto book = bookWithId(newBook, 3L);
+        when(bookCacheService.findBooksByIds(anyCollection())).thenReturn(List.of(book));
+
+        List<BookResponseDto> found = bookService.findAllById(List.of(3L, 5L, 3L));
+
+        assertEquals(List.of(book), found);
+        verify(bookCacheService).findBooksByIds(argThat(ids -> List.copyOf(ids).equals(List.of(3L, 5L))));
+    }
+
+    @Test
+    public void testToResponseData_SerializedLookups() {
+        BookService serializingBookService = new BookService(bookRepository, bookCacheService, bookSearchService, entityManager, BATCH_SIZE, cacheProperties(true, BookCacheProperties.WarmUp.Mode.NONE), meterRegistry);
+        BookResponseDto book = bookWithId(newBook, 3L);
+        SerializedString json = new SerializedString("{\"id\":3}");
+        when(bookCacheService.findBookJson(3L)).thenReturn(json);
+
+        assertEquals(new RawValue(json), serializingBookService.toResponseData(book));
+        assertEquals(book, bookService.toResponseData(book));
+    }
+
+    @Test
+    public void testDeleteById_EvictsBookAndPages() {
+        bookService.deleteById(1L);
+
+        verify(bookCacheService).cacheEvictBook(1L);
+        verify(bookCacheService).cacheEvictPages();
+        verify(bookRepository).deleteById(1L);
+        verify(bookSearchService).remove(List.of(1L));
+    }
+
+    @Test
+    public void testDeleteAllByAuthor_EvictsDeletedBooksAndPages() {
+        when(bookRepository.findIdsByAuthor("author", true)).thenReturn(List.of(3L, 5L));
+        when(bookRepository.deleteAllByIdIn(List.of(3L, 5L))).thenReturn(2);
+
+        int deleted = bookService.deleteAllByAuthor("author", true);
+
+        assertEquals(2, deleted);
+        verify(bookCacheService).cacheEvictBooks(List.of(3L, 5L));
+        verify(bookCacheService).cacheEvictPages();
+        verify(bookSearchService).remove(List.of(3L, 5L));
+    }
+
+    @Test
+    public void testDeleteAllById_EvictsAfterCommit() {
+        when(bookRepository.deleteAllByIdIn(List.of(3L, 5L))).thenReturn(2);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookService.deleteAllById(List.of(3L, 5L));
+
+            verifyNoInteractions(bookCacheService, bookSearchService);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(bookCacheService).cacheEvictBooks(List.of(3L, 5L));
+            verify(bookCacheService).cacheEvictPages();
+            verify(bookSearchService).remove(List.of(3L, 5L));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testDeleteAllById_NothingToDelete() {
+        int deleted = bookService.deleteAllById(List.of());
+
+        assertEquals(0, deleted);
+        verifyNoInteractions(bookRepository, bookCacheService, bookSearchService);
+    }
+
+    @Test
+    public void testFindAllAfter_ReturnsCursorForNextPage() {
+        BookResponseDto first = bookWithId(existingBook, 7L);
+        BookResponseDto second = bookWithId(newBook, 3L);
+        when(bookRepository.findFirstByKeyset(Limit.of(2))).thenReturn(List.of(first, second));
+        when(bookRepository.findAfterKeyset("Existing title", 7L, Limit.of(2))).thenReturn(List.of(second));
+
+        CursorPageDto firstPage = bookService.findAllAfter(null, 1);
+        CursorPageDto lastPage = bookService.findAllAfter(firstPage.nextCursor(), 1);
+
+        assertTrue(firstPage.hasNext());
+        assertEquals(List.of(first), firstPage.content());
+        assertFalse(lastPage.hasNext());
+        assertNull(lastPage.nextCursor());
+        assertEquals(List.of(second), lastPage.content());
+    }
+
+    @Test
+    public void testFindAllAfter_InvalidCursor() {
+        assertThrows(InvalidCursorException.class, () -> bookService.findAllAfter("not a cursor!", 10));
+    }
+
+    private static BookCacheProperties cacheProperties(boolean serialized, BookCacheProperties.WarmUp.Mode warmUpMode) {
+        return new BookCacheProperties(new BookCacheProperties.Books(DataSize.ofMegabytes(1), Duration.ofMinutes(10), serialized),
+                null, null, null, new BookCacheProperties.WarmUp(warmUpMode, 10, null));
+    }
+
+    private static BookResponseDto bookWithId(BookDto bookDto, Long id) {
+        BookEntity bookEntity = BookEntity.fromDto(bookDto);
+        bookEntity.setId(id);
+        return BookEntity.toResponseDto(bookEntity);
+    }
+}
@@ -0,0 +1,134 @@
+package com.marcuslull.bookmanager.services;
+
+import com.marcuslull.bookmanager.configurations.WriteBehindProperties;
+import com.marcuslull.bookmanager.dtos.BookDto;
+import com.marcuslull.bookmanager.dtos.BookResponseDto;
+import com.marcuslull.bookmanager.dtos.ImportJobDto;
+import com.marcuslull.bookmanager.exceptions.BatchSizeExceededException;
+import com.marcuslull.bookmanager.exceptions.DuplicateEntityException;
+import com.marcuslull.bookmanager.exceptions.WriteQueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookWriteBehindServiceTest {
+
+    @Mock
+    private BookService bookService;
+
+    private BookWriteBehindService bookWriteBehindService;
+    private BookDto hobbit;
+    private BookDto dune;
+
+    @BeforeEach
+    public void setUp() {
+        bookWriteBehindService = service(10);
+        hobbit = new BookDto("The Hobbit", "J.R.R. Tolkien", 310, 1, true);
+        dune = new BookDto("Dune", "Frank Herbert", 412, 1, false);
+    }
+
+    @Test
+    public void testEnqueue_WritesQueuedBooksAndCompletesJob() throws InterruptedException {
+        when(bookService.writeBatch(List.of(hobbit, dune)))
+                .thenReturn(List.of(new BookResponseDto(1L, "The Hobbit", "J.R.R. Tolkien", 310, 1, true, 0L)));
+
+        ImportJobDto queuedJob = bookWriteBehindService.enqueue(List.of(hobbit, hobbit, dune));
+
+        assertEquals(ImportJobDto.Status.PENDING, queuedJob.status());
+        assertEquals(3, queuedJob.received());
+        assertEquals(2, queuedJob.queued());
+        assertEquals(1, queuedJob.duplicates());
+
+        assertEquals(2, bookWriteBehindService.writeQueued());
+
+        ImportJobDto writtenJob = bookWriteBehindService.findJob(queuedJob.jobId());
+        assertEquals(ImportJobDto.Status.COMPLETED, writtenJob.status());
+        assertEquals(1, writtenJob.imported());
+        assertEquals(2, writtenJob.duplicates());
+        assertEquals(0, writtenJob.failed());
+    }
+
+    @Test
+    public void testEnqueue_RejectsBooksAlreadyQueued() {
+        bookWriteBehindService.enqueue(List.of(hobbit));
+
+        assertThrows(DuplicateEntityException.class, () -> bookWriteBehindService.enqueue(List.of(hobbit)));
+    }
+
+    @Test
+    public void testEnqueue_QueueFull() {
+        BookWriteBehindService fullService = service(1);
+        fullService.enqueue(List.of(hobbit));
+
+        assertThrows(WriteQueueFullException.class, () -> fullService.enqueue(List.of(dune)));
+    }
+
+    @Test
+    public void testEnqueue_MoreBooksThanQueueCapacity() {
+        BookWriteBehindService smallService = service(1);
+
+        assertThrows(BatchSizeExceededException.class, () -> smallService.enqueue(List.of(hobbit, dune)));
+        assertNotNull(smallService.enqueue(List.of(hobbit)));
+    }
+
+    @Test
+    public void testWriteQueued_RetriesFailedBatchBookByBook() throws InterruptedException {
+        when(bookService.writeBatch(List.of(hobbit, dune))).thenThrow(new IllegalStateException("uk_books_dedupe_id"));
+        when(bookService.writeBatch(List.of(hobbit))).thenReturn(List.of());
+        when(bookService.writeBatch(List.of(dune)))
+                .thenReturn(List.of(new BookResponseDto(3L, "Dune", "Frank Herbert", 412, 1, false, 0L)));
+        ImportJobDto hobbitJob = bookWriteBehindService.enqueue(List.of(hobbit));
+        ImportJobDto duneJob = bookWriteBehindService.enqueue(List.of(dune));
+
+        assertEquals(2, bookWriteBehindService.writeQueued());
+
+        assertEquals(1, bookWriteBehindService.findJob(hobbitJob.jobId()).duplicates());
+        assertEquals(1, bookWriteBehindService.findJob(duneJob.jobId()).imported());
+        assertEquals(0, bookWriteBehindService.findJob(duneJob.jobId()).failed());
+    }
+
+    @Test
+    public void testWriteQueued_CountsBookThatStillFails() throws InterruptedException {
+        when(bookService.writeBatch(List.of(hobbit))).thenThrow(new IllegalStateException("database down"));
+        ImportJobDto queuedJob = bookWriteBehindService.enqueue(List.of(hobbit));
+
+        bookWriteBehindService.writeQueued();
+
+        ImportJobDto writtenJob = bookWriteBehindService.findJob(queuedJob.jobId());
+        assertEquals(ImportJobDto.Status.COMPLETED, writtenJob.status());
+        assertEquals(1, writtenJob.failed());
+        assertNotNull(bookWriteBehindService.enqueue(List.of(hobbit)));
+    }
+
+    @Test
+    public void testFindJob_KeepsUnfinishedJobsBeyondMaxJobs() {
+        WriteBehindProperties properties = new WriteBehindProperties(true, 10, 100, 1, Duration.ofHours(1));
+        BookWriteBehindService oneJobService = new BookWriteBehindService(bookService, properties, new SimpleMeterRegistry());
+        BookDto emma = new BookDto("Emma", "Jane Austen", 474, 1, null);
+
+        List<ImportJobDto> queuedJobs = List.of(oneJobService.enqueue(List.of(hobbit)),
+                oneJobService.enqueue(List.of(dune)), oneJobService.enqueue(List.of(emma)));
+
+        queuedJobs.forEach(job -> assertEquals(ImportJobDto.Status.PENDING, oneJobService.findJob(job.jobId()).status()));
+    }
+
+    @Test
+    public void testFindJob_Unknown() {
+        assertNull(bookWriteBehindService.findJob("unknown"));
+    }
+
+    private BookWriteBehindService service(int queueCapacity) {
+        WriteBehindProperties properties = new WriteBehindProperties(true, queueCapacity, 100, 10, Duration.ofHours(1));
+        return new BookWriteBehindService(bookService, properties, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,77 @@
+package com.marcuslull.bookmanager.services;
+
+import com.marcuslull.bookmanager.configurations.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitServiceImplTest {
+
+    private RateLimitServiceImpl rateLimitService;
+    private SimpleMeterRegistry meterRegistry;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    public void setUp() {
+        RateLimitProperties.Budget budget = new RateLimitProperties.Budget(3, Duration.ofMinutes(1));
+        RateLimitProperties.Budget largeBudget = new RateLimitProperties.Budget(100, Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimitService = new RateLimitServiceImpl(
+                new RateLimitProperties(100, budget, largeBudget, budget, budget), meterRegistry);
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+    }
+
+    @Test
+    public void testConsume_AllowsBurstUpToCapacity() {
+        assertEquals(2, rateLimitService.consume(request, RateLimitPolicy.LIST_BOOKS).remaining());
+        assertEquals(1, rateLimitService.consume(request, RateLimitPolicy.LIST_BOOKS).remaining());
+        RateLimitResult last = rateLimitService.consume(request, RateLimitPolicy.LIST_BOOKS);
+
+        assertFalse(last.limited());
+        assertEquals(0, last.remaining());
+        assertEquals(3, last.limit());
+        assertEquals(60, last.resetSeconds());
+    }
+
+    @Test
+    public void testConsume_LimitsOnceBudgetIsExhausted() {
+        for (int i = 0; i < 3; i++) {
+            rateLimitService.consume(request, RateLimitPolicy.LIST_BOOKS);
+        }
+
+        RateLimitResult result = rateLimitService.consume(request, RateLimitPolicy.LIST_BOOKS);
+
+        assertTrue(result.limited());
+        assertEquals(0, result.remaining());
+        assertEquals(20, result.retryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("rate.limit.rejections").tag("policy", "list_books").counter().count());
+    }
+
+    @Test
+    public void testConsume_PoliciesHaveSeparateBudgets() {
+        for (int i = 0; i < 3; i++) {
+            rateLimitService.consume(request, RateLimitPolicy.LIST_BOOKS);
+        }
+
+        assertTrue(rateLimitService.consume(request, RateLimitPolicy.LIST_BOOKS).limited());
+        assertFalse(rateLimitService.consume(request, RateLimitPolicy.GET_BOOK).limited());
+    }
+
+    @Test
+    public void testConsume_ClientsHaveSeparateBudgets() {
+        for (int i = 0; i < 3; i++) {
+            rateLimitService.consume(request, RateLimitPolicy.POST_BOOKS);
+        }
+        MockHttpServletRequest otherClient = new MockHttpServletRequest();
+        otherClient.addHeader("X-Forwarded-For", "10.0.0.2");
+
+        assertTrue(rateLimitService.consume(request, RateLimitPolicy.POST_BOOKS).limited());
+        assertFalse(rateLimitService.consume(otherClient, RateLimitPolicy.POST_BOOKS).limited());
+    }
+}